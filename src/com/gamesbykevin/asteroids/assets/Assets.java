@@ -4,6 +4,7 @@ import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Files;
 import com.gamesbykevin.androidframework.resources.Font;
 import com.gamesbykevin.androidframework.resources.Images;
+import com.gamesbykevin.asteroids.entity.animation.RotationCache;
 
 import android.app.Activity;
 
@@ -174,6 +175,7 @@ public class Assets
         try
         {
             Images.dispose();
+            RotationCache.clear();
             Font.dispose();
             Audio.dispose();
             Files.dispose();
@@ -0,0 +1,182 @@
+package com.gamesbykevin.asteroids.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import android.os.Debug;
+
+import com.gamesbykevin.androidframework.resources.Audio;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.profiler.Profiler;
+import com.gamesbykevin.asteroids.profiler.Profiler.Section;
+import com.gamesbykevin.asteroids.screen.OptionsScreen;
+import com.gamesbykevin.asteroids.screen.ScreenManager;
+
+/**
+ * Verifies the game doesn't allocate memory while a wave is being played.<br>
+ * A game is updated in the middle of a wave and the memory allocated by each update is counted,
+ * if the average is over the budget an error is thrown with the sections that allocated the most.<br>
+ * The error isn't caught by the game loop, so the game stops instead of continuing over budget
+ * @author GOD
+ */
+public final class AllocationBudget
+{
+    /**
+     * Do we verify the allocation budget when the game starts?
+     */
+    public static final boolean ENABLED = false;
+    
+    /**
+     * The most memory each update can allocate on average (bytes).<br>
+     * Events such as a ship being destroyed or a new wave still create their text, so this isn't 0
+     */
+    public static final long BUDGET = 16L;
+    
+    /**
+     * The number of asteroids in play
+     */
+    private static final int COUNT = Benchmarks.WAVE_20;
+    
+    /**
+     * The number of updates before we start counting, so the pools have a chance to fill
+     */
+    private static final int WARMUP_TICKS = 300;
+    
+    /**
+     * The number of updates counted
+     */
+    private static final int TICKS = 900;
+    
+    /**
+     * The number of sections listed in the report
+     */
+    private static final int TOP_SECTIONS = 5;
+    
+    /**
+     * The sections measured during a game update
+     */
+    private static final Section[] SECTIONS = Profiler.getChildren(Section.Update);
+    
+    //our main screen object reference
+    private final ScreenManager screen;
+    
+    /**
+     * Create the allocation budget check
+     * @param screen The main screen, used to create the game we measure
+     */
+    public AllocationBudget(final ScreenManager screen)
+    {
+        this.screen = screen;
+    }
+    
+    /**
+     * Update a game in the middle of a wave and count the memory allocated
+     * @throws Exception
+     * @throws AssertionError If the average memory allocated by an update is over the budget
+     */
+    public void run() throws Exception
+    {
+        //remember the game mode so we can restore it when done
+        final int mode = screen.getScreenOptions().getIndex(OptionsScreen.Key.Mode);
+        
+        //coop mode has every entity type
+        screen.getScreenOptions().setIndex(OptionsScreen.Key.Mode, OptionsScreen.MODE_COOP);
+        
+        //count the memory allocated by this thread
+        Debug.startAllocCounting();
+        
+        Game game = null;
+        
+        try
+        {
+            //the game is created without audio or vibration, so only the simulation is measured
+            game = Benchmarks.createGame(screen, COUNT);
+            
+            for (int tick = 0; tick < WARMUP_TICKS; tick++)
+            {
+                game.update();
+            }
+            
+            //start counting
+            Profiler.setCounting(true);
+            Debug.resetThreadAllocSize();
+            
+            for (int tick = 0; tick < TICKS; tick++)
+            {
+                game.update();
+            }
+            
+            final long total = Debug.getThreadAllocSize();
+            
+            Profiler.setCounting(false);
+            
+            //display the result
+            final String report = report(total);
+            System.out.println(report);
+            
+            if (total / TICKS > BUDGET)
+                throw new AssertionError("Allocation budget exceeded\n" + report);
+        }
+        finally
+        {
+            Profiler.setCounting(false);
+            Debug.stopAllocCounting();
+            
+            if (game != null)
+                game.dispose();
+            
+            //restore the game mode
+            screen.getScreenOptions().setIndex(OptionsScreen.Key.Mode, mode);
+            
+            //make sure nothing we started is still playing
+            Audio.stop();
+        }
+    }
+    
+    /**
+     * Create the report
+     * @param total The total memory allocated by every update counted (bytes)
+     * @return The average memory allocated per update, and the sections that allocated the most
+     */
+    private String report(final long total)
+    {
+        //sort the sections from most allocated to least
+        final Section[] sections = Arrays.copyOf(SECTIONS, SECTIONS.length);
+        
+        Arrays.sort(sections, new Comparator<Section>()
+        {
+            @Override
+            public int compare(final Section section1, final Section section2)
+            {
+                final long bytes1 = Profiler.getBytes(section1);
+                final long bytes2 = Profiler.getBytes(section2);
+                
+                //Long.compare() isn't available on every supported version
+                return (bytes2 < bytes1) ? -1 : ((bytes2 == bytes1) ? 0 : 1);
+            }
+        });
+        
+        final StringBuilder builder = new StringBuilder();
+        
+        builder.append(String.format("%-24s %14s %14s%n", "Allocations", "bytes", "bytes/tick"));
+        builder.append(String.format("%-24s %14d %14.1f%n", "Game.update", total, total / (double)TICKS));
+        
+        //the memory allocated outside of the measured sections
+        long other = total;
+        
+        for (int index = 0; index < sections.length; index++)
+        {
+            final long bytes = Profiler.getBytes(sections[index]);
+            
+            other -= bytes;
+            
+            if (index < TOP_SECTIONS)
+                builder.append(String.format("%-24s %14d %14.1f%n", sections[index].getLabel(), bytes, bytes / (double)TICKS));
+        }
+        
+        builder.append(String.format("%-24s %14d %14.1f%n", "  other", other, other / (double)TICKS));
+        builder.append(String.format("%-24s %14d", "budget", BUDGET));
+        
+        return builder.toString();
+    }
+}
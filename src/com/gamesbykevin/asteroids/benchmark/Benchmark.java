@@ -0,0 +1,49 @@
+package com.gamesbykevin.asteroids.benchmark;
+
+import com.gamesbykevin.asteroids.game.Game;
+
+/**
+ * A single operation of the simulation that we want to measure
+ * @author GOD
+ */
+public abstract class Benchmark
+{
+	//the name displayed in the results
+	private final String name;
+	
+	/**
+	 * Create a new benchmark
+	 * @param name The name displayed in the results
+	 */
+	protected Benchmark(final String name)
+	{
+		this.name = name;
+	}
+	
+	/**
+	 * Get the name
+	 * @return The name displayed in the results
+	 */
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	/**
+	 * Prepare anything needed before the operation is measured.<br>
+	 * This is called after the game has been started with the desired number of asteroids
+	 * @param game The game that has been started
+	 * @throws Exception
+	 */
+	public void setup(final Game game) throws Exception
+	{
+		//nothing needed by default
+	}
+	
+	/**
+	 * Perform the operation once
+	 * @param game The game that has been started
+	 * @throws Exception
+	 */
+	public abstract void run(final Game game) throws Exception;
+}
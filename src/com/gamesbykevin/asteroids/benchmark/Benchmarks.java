@@ -0,0 +1,348 @@
+package com.gamesbykevin.asteroids.benchmark;
+
+import java.io.IOException;
+
+import android.os.Debug;
+
+import com.gamesbykevin.androidframework.resources.Audio;
+import com.gamesbykevin.asteroids.entity.asteroid.AsteroidField;
+import com.gamesbykevin.asteroids.entity.ship.Cpu;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.game.replay.Playback;
+import com.gamesbykevin.asteroids.game.replay.Replay;
+import com.gamesbykevin.asteroids.screen.OptionsScreen;
+import com.gamesbykevin.asteroids.screen.ScreenManager;
+
+/**
+ * Measures the simulation hot paths on the device without rendering.<br>
+ * Each benchmark is run for every asteroid count, and the throughput and allocation rate are displayed
+ * @author GOD
+ */
+public final class Benchmarks
+{
+    /**
+     * Do we run the benchmarks when the game starts?
+     */
+    public static final boolean ENABLED = false;
+    
+    /**
+     * The number of asteroids in wave 1
+     */
+    public static final int WAVE_1 = 1;
+    
+    /**
+     * The number of asteroids in wave 20
+     */
+    public static final int WAVE_20 = 20;
+    
+    /**
+     * The number of asteroids for the stress test
+     */
+    public static final int STRESS = 5000;
+    
+    /**
+     * The asteroid counts each benchmark is run with
+     */
+    private static final int[] COUNTS = {WAVE_1, WAVE_20, STRESS};
+    
+    /**
+     * The number of iterations run before we measure, so the runtime has a chance to compile the code
+     */
+    private static final int WARMUP_ITERATIONS = 2;
+    
+    /**
+     * The number of iterations measured
+     */
+    private static final int MEASURE_ITERATIONS = 5;
+    
+    /**
+     * The number of operations in each iteration
+     */
+    private static final int OPERATIONS = 300;
+    
+    /**
+     * The seed used so every run starts with the same asteroids
+     */
+    private static final long SEED = 1L;
+    
+    /**
+     * The most updates we will run waiting for the wave transition to complete
+     */
+    private static final int TRANSITION_TIMEOUT = 1000;
+    
+    //our main screen object reference
+    private final ScreenManager screen;
+    
+    //the benchmarks to run
+    private final Benchmark[] benchmarks;
+    
+    /**
+     * Create the benchmarks
+     * @param screen The main screen, used to create the game we measure
+     */
+    public Benchmarks(final ScreenManager screen)
+    {
+        this.screen = screen;
+        
+        this.benchmarks = new Benchmark[] {
+            
+            new Benchmark("Asteroids.update")
+            {
+                @Override
+                public void run(final Game game) throws Exception
+                {
+                    game.getAsteroids().update();
+                }
+            },
+            
+            new Benchmark("Lasers.update")
+            {
+                @Override
+                public void run(final Game game) throws Exception
+                {
+                    //keep a laser in play so there is always something to check
+                    if (game.getLasers().get().isEmpty())
+                    {
+                        game.getHuman().getShip().setDead(false);
+                        game.getLasers().add(game.getHuman().getShip());
+                    }
+                    
+                    game.getLasers().update();
+                    
+                    //apply the hits, the same as the end of each game update
+                    game.getCommands().commit();
+                }
+            },
+            
+            new Benchmark("Cpu.update")
+            {
+                @Override
+                public void run(final Game game) throws Exception
+                {
+                    final Cpu cpu = (Cpu)game.getCpu().getShip();
+                    
+                    //make sure a new target is selected every update
+                    cpu.resetTarget();
+                    cpu.setDead(false);
+                    cpu.update();
+                }
+            },
+            
+            new Benchmark("Entity.updateOutline")
+            {
+                @Override
+                public void run(final Game game) throws Exception
+                {
+                    final AsteroidField field = game.getAsteroids().getField();
+                    
+                    //copying the state updates the outline of every asteroid
+                    for (int slot = 0; slot < field.getCount(); slot++)
+                    {
+                        field.sync(slot);
+                    }
+                }
+            },
+            
+            new Benchmark("Game.update")
+            {
+                @Override
+                public void run(final Game game) throws Exception
+                {
+                    game.update();
+                }
+            },
+        };
+    }
+    
+    /**
+     * Run every benchmark and display the results
+     * @throws Exception
+     */
+    public void run() throws Exception
+    {
+        //remember the game mode so we can restore it when done
+        final int mode = screen.getScreenOptions().getIndex(OptionsScreen.Key.Mode);
+        
+        //coop mode has every entity type
+        screen.getScreenOptions().setIndex(OptionsScreen.Key.Mode, OptionsScreen.MODE_COOP);
+        
+        //count the memory allocated by this thread
+        Debug.startAllocCounting();
+        
+        try
+        {
+            System.out.println(String.format("%-24s %8s %14s %14s", "Benchmark", "Count", "ops/s", "bytes/op"));
+            
+            for (Benchmark benchmark : benchmarks)
+            {
+                for (int count : COUNTS)
+                {
+                    run(benchmark, count);
+                }
+            }
+            
+            //measure the most recent recording, so a reported game can be measured again
+            runReplay();
+        }
+        finally
+        {
+            Debug.stopAllocCounting();
+            
+            //restore the game mode
+            screen.getScreenOptions().setIndex(OptionsScreen.Key.Mode, mode);
+            
+            //make sure nothing we started is still playing
+            Audio.stop();
+        }
+    }
+    
+    /**
+     * Run the benchmark and display the result
+     * @param benchmark The benchmark to run
+     * @param count The number of asteroids
+     * @throws Exception
+     */
+    private void run(final Benchmark benchmark, final int count) throws Exception
+    {
+        //the total time and memory of the measured iterations
+        long time = 0;
+        long bytes = 0;
+        
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURE_ITERATIONS; iteration++)
+        {
+            //every iteration starts from the same state
+            final Game game = createGame(screen, count);
+            
+            try
+            {
+                benchmark.setup(game);
+                
+                Debug.resetThreadAllocSize();
+                
+                final long start = System.nanoTime();
+                
+                for (int operation = 0; operation < OPERATIONS; operation++)
+                {
+                    benchmark.run(game);
+                }
+                
+                final long elapsed = System.nanoTime() - start;
+                
+                //only count the iterations after the warm up
+                if (iteration >= WARMUP_ITERATIONS)
+                {
+                    time += elapsed;
+                    bytes += Debug.getThreadAllocSize();
+                }
+            }
+            finally
+            {
+                game.dispose();
+            }
+        }
+        
+        //the total number of operations measured
+        final long operations = (long)OPERATIONS * MEASURE_ITERATIONS;
+        
+        System.out.println(String.format("%-24s %8d %14.1f %14.1f", 
+            benchmark.getName(), count, operations / (time / 1000000000.0), bytes / (double)operations));
+    }
+    
+    /**
+     * Simulate the most recent recording as fast as possible and display the result.<br>
+     * The recording is simulated without the screens, so only the game rules are measured
+     * @throws Exception
+     */
+    private void runReplay() throws Exception
+    {
+        final Replay replay;
+        
+        try
+        {
+            replay = screen.getScreenGame().getReplays().load();
+        }
+        catch (IOException e)
+        {
+            System.out.println("No recording to measure");
+            return;
+        }
+        
+        //the total time, memory and updates of the measured iterations
+        long time = 0;
+        long bytes = 0;
+        long updates = 0;
+        
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURE_ITERATIONS; iteration++)
+        {
+            final Game game = new Game();
+            
+            try
+            {
+                Debug.resetThreadAllocSize();
+                
+                final long start = System.nanoTime();
+                
+                final int count;
+                
+                try
+                {
+                    count = Playback.fastForward(game, replay);
+                }
+                catch (Exception e)
+                {
+                    //the recording is from an older version of the game
+                    System.out.println(e.getMessage());
+                    return;
+                }
+                
+                final long elapsed = System.nanoTime() - start;
+                
+                //only count the iterations after the warm up
+                if (iteration >= WARMUP_ITERATIONS)
+                {
+                    time += elapsed;
+                    bytes += Debug.getThreadAllocSize();
+                    updates += count;
+                }
+            }
+            finally
+            {
+                game.dispose();
+            }
+        }
+        
+        System.out.println(String.format("%-24s %8d %14.1f %14.1f", 
+            "Playback.fastForward", replay.getEnd(), updates / (time / 1000000000.0), bytes / (double)updates));
+    }
+    
+    /**
+     * Create a game that is ready to update, with the number of asteroids in play
+     * @param screen The main screen, used to create the game
+     * @param count The number of asteroids
+     * @return The game
+     * @throws Exception
+     */
+    static Game createGame(final ScreenManager screen, final int count) throws Exception
+    {
+        final Game game = new Game(screen);
+        
+        //we only want to measure the simulation, so nothing is played
+        game.setEvents(Playback.SILENT);
+        
+        //start the game with the same seed every time, and use the wave to determine the number of asteroids
+        game.start(SEED);
+        game.getOverlay().setWave(count);
+        game.getOverlay().reset();
+        
+        //the asteroids are added once the transition is complete
+        for (int update = 0; !game.getOverlay().isComplete() || game.getAsteroids().get().isEmpty(); update++)
+        {
+            if (update >= TRANSITION_TIMEOUT)
+                throw new Exception("Wave transition did not complete");
+            
+            game.update();
+        }
+        
+        return game;
+    }
+}
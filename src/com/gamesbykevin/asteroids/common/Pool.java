@@ -0,0 +1,170 @@
+package com.gamesbykevin.asteroids.common;
+
+import java.util.ArrayList;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+/**
+ * A bounded pool of reusable objects so we don't create new objects during game play.<br>
+ * The caller is responsible for resetting an object after it has been acquired
+ * @author GOD
+ * @param <T> The type of object in the pool
+ */
+public abstract class Pool<T extends Disposable> implements Disposable
+{
+	//the objects available to be acquired
+	private ArrayList<T> available;
+
+	//the maximum number of objects we will hold on to
+	private final int capacity;
+
+	//the number of objects currently acquired
+	private int active = 0;
+
+	//the most objects acquired at the same time
+	private int highWater = 0;
+
+	//the number of times we had to create a new object
+	private int misses = 0;
+
+	/**
+	 * Create a new pool
+	 * @param capacity The maximum number of objects we will hold on to when released
+	 */
+	protected Pool(final int capacity)
+	{
+		this.capacity = capacity;
+		this.available = new ArrayList<T>(capacity);
+	}
+
+	/**
+	 * Create a new object when the pool is empty
+	 * @return A new object
+	 * @throws Exception
+	 */
+	protected abstract T create() throws Exception;
+
+	/**
+	 * Create objects ahead of time so they don't need to be created during game play
+	 * @param count The number of objects we want available, will not exceed the capacity
+	 * @throws Exception
+	 */
+	public void prepare(final int count) throws Exception
+	{
+		while (available.size() < count && available.size() < getCapacity())
+		{
+			available.add(create());
+		}
+	}
+
+	/**
+	 * Get an object from the pool, if none are available a new one will be created
+	 * @return An object that needs to be reset before use
+	 * @throws Exception
+	 */
+	public T acquire() throws Exception
+	{
+		final T object;
+
+		if (available.isEmpty())
+		{
+			//we have to create a new one
+			misses++;
+			object = create();
+		}
+		else
+		{
+			//take the last available
+			object = available.remove(available.size() - 1);
+		}
+
+		//keep track of how many are in use
+		active++;
+
+		if (active > highWater)
+			highWater = active;
+
+		return object;
+	}
+
+	/**
+	 * Return the object to the pool.<br>
+	 * If the pool is full the object will be disposed
+	 * @param object The object we no longer need
+	 */
+	public void release(final T object)
+	{
+		if (active > 0)
+			active--;
+
+		if (available.size() < getCapacity())
+		{
+			available.add(object);
+		}
+		else
+		{
+			object.dispose();
+		}
+	}
+
+	/**
+	 * Get the capacity
+	 * @return The maximum number of objects we will hold on to
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Get the active count
+	 * @return The number of objects currently acquired
+	 */
+	public int getActive()
+	{
+		return this.active;
+	}
+
+	/**
+	 * Get the high water mark
+	 * @return The most objects acquired at the same time
+	 */
+	public int getHighWater()
+	{
+		return this.highWater;
+	}
+
+	/**
+	 * Get the misses
+	 * @return The number of times the pool was empty and a new object had to be created
+	 */
+	public int getMisses()
+	{
+		return this.misses;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "active=" + getActive() + " high=" + getHighWater() + " misses=" + getMisses() + " capacity=" + getCapacity();
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (available != null)
+		{
+			for (int index = 0; index < available.size(); index++)
+			{
+				if (available.get(index) != null)
+				{
+					available.get(index).dispose();
+					available.set(index, null);
+				}
+			}
+
+			available.clear();
+			available = null;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.gamesbykevin.asteroids.common;
+
+/**
+ * A fast seedable random number generator (SplitMix64).<br>
+ * This is not synchronized, each subsystem should have its own stream so the results only depend on the seed
+ * @author GOD
+ */
+public final class Rng
+{
+	/**
+	 * The different streams of random numbers, one for each subsystem
+	 */
+	public enum Stream
+	{
+		//asteroid velocity, rotation and the type of children
+		Asteroids,
+		
+		//the asteroids spawned each wave and where the ships are placed
+		Spawn,
+		
+		//the effects displayed
+		Effects,
+		
+		//the direction and color of the particles
+		Particles
+	}
+	
+	/**
+	 * The increment added to the state for each value
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	
+	/**
+	 * Used to convert the top 24 bits to a float (0.0 - 1.0)
+	 */
+	private static final float FLOAT_UNIT = 1.0f / (1 << 24);
+	
+	//the current state
+	private long state;
+	
+	/**
+	 * Create a new random number generator
+	 * @param seed The starting seed
+	 */
+	public Rng(final long seed)
+	{
+		setSeed(seed);
+	}
+	
+	/**
+	 * Assign the seed
+	 * @param seed The starting seed
+	 */
+	public void setSeed(final long seed)
+	{
+		this.state = seed;
+	}
+	
+	/**
+	 * Assign the seed for a stream.<br>
+	 * Each stream will produce a different sequence from the same seed
+	 * @param seed The seed shared by every stream
+	 * @param stream The stream this generator is used for
+	 */
+	public void setSeed(final long seed, final Stream stream)
+	{
+		setSeed(mix(seed + ((stream.ordinal() + 1) * GOLDEN_GAMMA)));
+	}
+	
+	/**
+	 * Get the next random value
+	 * @return A random long
+	 */
+	public long nextLong()
+	{
+		state += GOLDEN_GAMMA;
+		
+		return mix(state);
+	}
+	
+	/**
+	 * Get the next random value
+	 * @param bound The upper bound (exclusive), must be positive
+	 * @return A random int from 0 to bound - 1
+	 */
+	public int nextInt(final int bound)
+	{
+		//scale the top 32 bits to the range
+		return (int)(((nextLong() >>> 32) * bound) >>> 32);
+	}
+	
+	/**
+	 * Get the next random value
+	 * @return A random float from 0.0 (inclusive) to 1.0 (exclusive)
+	 */
+	public float nextFloat()
+	{
+		return (nextLong() >>> 40) * FLOAT_UNIT;
+	}
+	
+	/**
+	 * Get the next random value
+	 * @return true or false
+	 */
+	public boolean nextBoolean()
+	{
+		return (nextLong() < 0);
+	}
+	
+	/**
+	 * Scramble the bits of the value
+	 * @param value The value to scramble
+	 * @return The scrambled value
+	 */
+	private static long mix(long value)
+	{
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		
+		return value ^ (value >>> 31);
+	}
+}
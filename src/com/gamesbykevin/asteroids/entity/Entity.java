@@ -1,10 +1,16 @@
 package com.gamesbykevin.asteroids.entity;
 
+import com.gamesbykevin.asteroids.entity.animation.AnimationCursor;
+import com.gamesbykevin.asteroids.entity.animation.AnimationTemplate;
+import com.gamesbykevin.asteroids.entity.animation.RotationCache;
+import com.gamesbykevin.asteroids.entity.collision.Collision;
+import com.gamesbykevin.asteroids.entity.geometry.Shape;
+import com.gamesbykevin.asteroids.entity.geometry.Trig;
+import com.gamesbykevin.asteroids.entity.geometry.Wrap;
 import com.gamesbykevin.asteroids.panel.GamePanel;
 
 import android.graphics.Canvas;
-import android.graphics.Path;
-import android.graphics.Region;
+import android.graphics.RectF;
 
 public abstract class Entity extends com.gamesbykevin.androidframework.base.Entity implements IEntity
 {
@@ -13,7 +19,7 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 	
 	//the rotation speed
 	private float speed;
-
+	
 	/**
 	 * The minimum allowed rotation (degrees)
 	 */
@@ -27,19 +33,55 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 	//is this entity dead
 	private boolean dead = false;
 	
-	//this will be the outline of our entity used for collision detection
-	private Path outline;
+	//the shape of the outline, shared by every entity with the same coordinates
+	private final Shape shape;
+	
+	//the current coordinates of the outline used for collision detection
+	private final float[] outlineX, outlineY;
+	
+	//the center of the outline
+	private float centerX, centerY;
+	
+	//the distance from the center to the furthest point of the outline
+	private final float radius;
+	
+	//the edges of the screen the outline crosses, 0 if the outline is completely on the screen
+	private int ghost = 0;
 	
-	//the base coordinates for this entity
-	private final int[] xpoints, ypoints;
+	//the outline of the closest wrapped copy, only updated while the outline crosses an edge
+	private final float[] ghostX, ghostY;
+	
+	//the center of the closest wrapped copy
+	private float ghostCenterX, ghostCenterY;
+	
+	//where the contact of the most recent collision is stored
+	private static final float[] CONTACT = new float[2];
 	
 	/**
 	 * The number of degrees to offset when rendering the image
 	 */
 	private static final float ROTATION_OFFSET = 90f;
 	
-	//the region used for collision detection
-	private Region region, clip, other;
+	//the location and rotation before the most recent update, used to interpolate the render
+	private double previousX, previousY;
+	private float previousRotation;
+	
+	//do we have a previous location to interpolate from
+	private boolean previous = false;
+	
+	/**
+	 * If the entity moved more than this distance in one update it was placed, so we won't interpolate
+	 */
+	private static final double INTERPOLATION_SNAP = GamePanel.HEIGHT / 2;
+	
+	//how far we are between the previous update and the next (0.0 - 1.0)
+	private static float interpolation = 1.0f;
+	
+	//the animation being played by this entity
+	private final AnimationCursor animation = new AnimationCursor();
+	
+	//where the current frame is drawn, shared since we render one entity at a time, created when first rendered
+	private static RectF destination;
 	
 	protected Entity()
 	{
@@ -49,25 +91,65 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 	
 	protected Entity(final int[] xpoints, final int[] ypoints)
 	{
-		//store the outline coordinates
-		this.xpoints = xpoints;
-		this.ypoints = ypoints;
+		//get the shape for the outline coordinates
+		this.shape = Shape.get(xpoints, ypoints);
+		
+		//the outline will have the same number of points
+		this.outlineX = (shape == null) ? null : new float[shape.getSize()];
+		this.outlineY = (shape == null) ? null : new float[shape.getSize()];
+		this.ghostX = (shape == null) ? null : new float[shape.getSize()];
+		this.ghostY = (shape == null) ? null : new float[shape.getSize()];
+		
+		//store the radius
+		this.radius = (shape == null) ? 0 : shape.getRadius();
 		
 		//update outline
 		this.updateOutline();
 	}
 	
 	/**
-	 * Get the outline
-	 * @return The outline for this entity that will be used for collision detection
+	 * Get the x-coordinates of the outline
+	 * @return The outline x-coordinates for this entity that will be used for collision detection
 	 */
-	protected Path getOutline()
+	public float[] getOutlineX()
 	{
-		//create the outline if it does not exist
-		if (this.outline == null)
-			this.outline = new Path();
-		
-		return this.outline;
+		return this.outlineX;
+	}
+	
+	/**
+	 * Get the y-coordinates of the outline
+	 * @return The outline y-coordinates for this entity that will be used for collision detection
+	 */
+	public float[] getOutlineY()
+	{
+		return this.outlineY;
+	}
+	
+	/**
+	 * Get the animation
+	 * @return The progress of this entity through the current animation template
+	 */
+	public AnimationCursor getAnimation()
+	{
+		return this.animation;
+	}
+	
+	/**
+	 * Get the shape
+	 * @return The shape of the outline, null if this entity has no outline
+	 */
+	public Shape getShape()
+	{
+		return this.shape;
+	}
+	
+	/**
+	 * Get the radius
+	 * @return The distance from the center to the furthest point of the outline
+	 */
+	public float getRadius()
+	{
+		return this.radius;
 	}
 	
 	/**
@@ -82,55 +164,179 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 		if (isDead() || entity.isDead())
 			return false;
 		
-		//create the region if it is not created yet
-		if (region == null)
-			region = new Region();
-		if (other == null)
-			other = new Region();
+		//we can't have collision without an outline
+		if (outlineX == null || entity.outlineX == null)
+			return false;
+		
+		//if either of us crosses an edge, use the closest wrapped copy of the entity
+		final boolean wrapped = entity.updateGhost(this);
+		
+		//if the bounding circles don't touch there can't be collision
+		if (!Collision.hasCircleCollision(centerX, centerY, radius, entity.getCenterX(wrapped), entity.getCenterY(wrapped), entity.radius))
+			return false;
+		
+		//check the outlines for collision
+		if (!Collision.hasCollision(outlineX, outlineY, entity.getOutlineX(wrapped), entity.getOutlineY(wrapped), adjust ? CONTACT : null))
+			return false;
 		
-		//the boundary of the screen
-		if (clip == null)
+		//if we are to adjust, place this entity at the center of collision
+		if (adjust)
 		{
-			//the boundary of the screen will be slightly larger than the visual screen
-			final int left = (int)(-GamePanel.WIDTH * .25);
-			final int top = (int)(-GamePanel.HEIGHT * .25);
-			final int right = (int)(GamePanel.WIDTH * 1.25);
-			final int bottom = (int)(GamePanel.HEIGHT * 1.25);
-			
-			//create the expanded region
-			clip = new Region(left, top, right, bottom);
+			setX(CONTACT[Collision.CONTACT_X]);
+			setY(CONTACT[Collision.CONTACT_Y]);
 		}
 		
-		//set the region according to the current outline
-		final boolean result1 = region.setPath(getOutline(), clip);
+		//return true because we have collision
+		return true;
+	}
+	
+	/**
+	 * Get the earliest time we touch the entity during the most recent update.<br>
+	 * Both entities are followed along their move, so a fast entity can't skip past a small one between updates
+	 * @param entity The entity we want to check
+	 * @param adjust If true, the entity (x,y) will be updated to match the first contact (if collision has been detected here)
+	 * @return The time of impact between the previous update (0.0) and now (1.0), or Collision.NO_IMPACT if there was no collision
+	 */
+	public float getTimeOfImpact(final Entity entity, final boolean adjust)
+	{
+		//we can't have collision if we are dead or if the entity is dead
+		if (isDead() || entity.isDead())
+			return Collision.NO_IMPACT;
+		
+		//we can't have collision without an outline
+		if (outlineX == null || entity.outlineX == null)
+			return Collision.NO_IMPACT;
+		
+		//how far each entity moved during the update
+		final float moveX = (float)getMoveX();
+		final float moveY = (float)getMoveY();
+		final float entityMoveX = (float)entity.getMoveX();
+		final float entityMoveY = (float)entity.getMoveY();
+		
+		//if either of us crosses an edge, use the closest wrapped copy of the entity
+		final boolean wrapped = entity.updateGhost(this);
+		
+		//if the bounding circles never touch during the move there can't be collision
+		if (!Collision.hasSweptCircleCollision(centerX, centerY, radius, moveX - entityMoveX, moveY - entityMoveY, entity.getCenterX(wrapped), entity.getCenterY(wrapped), entity.radius))
+			return Collision.NO_IMPACT;
 		
-		//set the region for the entity's current outline
-		final boolean result2 = other.setPath(entity.getOutline(), clip);
+		//check the outlines along the move
+		final float time = Collision.getTimeOfImpact(outlineX, outlineY, moveX, moveY, entity.getOutlineX(wrapped), entity.getOutlineY(wrapped), entityMoveX, entityMoveY, adjust ? CONTACT : null);
 		
-		//make sure the regions are not empty
-		if (result1 && result2)
+		//if we are to adjust, place this entity at the first contact
+		if (adjust && time != Collision.NO_IMPACT)
 		{
-			//make sure result is false, if true is the result, then the regions do not intersect
-			if (!region.quickReject(other))
-			{
-				//if true, we have collision
-				if (region.op(other, Region.Op.INTERSECT))
-				{
-					//if we are to adjust, place this entity at the center of collision
-					if (adjust)
-					{
-						setX(region.getBounds().left + (region.getBounds().width() / 2));
-						setY(region.getBounds().top + (region.getBounds().height() / 2));
-					}
-					
-					//return true because we have collision
-					return true;
-				}
-			}
+			setX(CONTACT[Collision.CONTACT_X]);
+			setY(CONTACT[Collision.CONTACT_Y]);
 		}
 		
-		//there is no collision
-		return false;
+		return time;
+	}
+	
+	/**
+	 * Update the closest wrapped copy of our outline.<br>
+	 * Only an entity crossing an edge can touch a wrapped copy, so nothing is done unless one of us crosses an edge
+	 * @param entity The entity checking for collision with us
+	 * @return true if the closest copy is wrapped and the ghost outline was updated, false if the outline itself is closest
+	 */
+	private boolean updateGhost(final Entity entity)
+	{
+		if ((ghost | entity.ghost) == 0)
+			return false;
+		
+		//how far to move us so we are closest to the entity
+		final float offsetX = (float)(Wrap.getShortest(centerX - entity.centerX, GamePanel.WIDTH) - (centerX - entity.centerX));
+		final float offsetY = (float)(Wrap.getShortest(centerY - entity.centerY, GamePanel.HEIGHT) - (centerY - entity.centerY));
+		
+		if (offsetX == 0 && offsetY == 0)
+			return false;
+		
+		this.ghostCenterX = centerX + offsetX;
+		this.ghostCenterY = centerY + offsetY;
+		
+		for (int index = 0; index < outlineX.length; index++)
+		{
+			ghostX[index] = outlineX[index] + offsetX;
+			ghostY[index] = outlineY[index] + offsetY;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Get the x-coordinates of the outline
+	 * @param wrapped Do we want the closest wrapped copy
+	 * @return The ghost outline if wrapped, otherwise the outline
+	 */
+	private float[] getOutlineX(final boolean wrapped)
+	{
+		return (wrapped) ? ghostX : outlineX;
+	}
+	
+	/**
+	 * Get the y-coordinates of the outline
+	 * @param wrapped Do we want the closest wrapped copy
+	 * @return The ghost outline if wrapped, otherwise the outline
+	 */
+	private float[] getOutlineY(final boolean wrapped)
+	{
+		return (wrapped) ? ghostY : outlineY;
+	}
+	
+	/**
+	 * Get the center x-coordinate
+	 * @param wrapped Do we want the closest wrapped copy
+	 * @return The center of the ghost outline if wrapped, otherwise the center of the outline
+	 */
+	private float getCenterX(final boolean wrapped)
+	{
+		return (wrapped) ? ghostCenterX : centerX;
+	}
+	
+	/**
+	 * Get the center y-coordinate
+	 * @param wrapped Do we want the closest wrapped copy
+	 * @return The center of the ghost outline if wrapped, otherwise the center of the outline
+	 */
+	private float getCenterY(final boolean wrapped)
+	{
+		return (wrapped) ? ghostCenterY : centerY;
+	}
+	
+	/**
+	 * Get the ghost mask
+	 * @return The edges of the screen the outline crosses (see Wrap), 0 if the outline is completely on the screen
+	 */
+	public int getGhostMask()
+	{
+		return this.ghost;
+	}
+	
+	/**
+	 * Get the move on the x-axis
+	 * @return How far we moved on the x-axis during the most recent update, going the short way around the screen, 0 if we were placed
+	 */
+	public double getMoveX()
+	{
+		return hasContinuousMove() ? Wrap.getShortest(getX() - previousX, GamePanel.WIDTH) : 0;
+	}
+	
+	/**
+	 * Get the move on the y-axis
+	 * @return How far we moved on the y-axis during the most recent update, going the short way around the screen, 0 if we were placed
+	 */
+	public double getMoveY()
+	{
+		return hasContinuousMove() ? Wrap.getShortest(getY() - previousY, GamePanel.HEIGHT) : 0;
+	}
+	
+	/**
+	 * Did we move a normal distance since the last update?
+	 * @return true if we have a previous location that wasn't too far away going the short way around the screen, false if we were placed
+	 */
+	private boolean hasContinuousMove()
+	{
+		return (previous && Math.abs(Wrap.getShortest(getX() - previousX, GamePanel.WIDTH)) < INTERPOLATION_SNAP && Math.abs(Wrap.getShortest(getY() - previousY, GamePanel.HEIGHT)) < INTERPOLATION_SNAP);
 	}
 	
 	/**
@@ -138,63 +344,77 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 	 */
 	protected final void updateOutline()
 	{
-		//if the array is null, no need to continue
-		if (xpoints == null || ypoints == null)
+		//if there is no shape, no need to continue
+		if (shape == null)
 			return;
 		
-		//remove the previous coordinates
-		getOutline().reset();
-		
-		//convert the rotation from degrees to radian's
-		final double radians = Math.toRadians(getRotation());
+		//get the cached offsets for the closest step of rotation
+		final int step = Trig.getStep(getRotation());
+		final float[] offsetX = shape.getOffsetX(step);
+		final float[] offsetY = shape.getOffsetY(step);
 		
 		//we will offset from the center of the entity
-		final double centerX = getX() + (getWidth() / 2);
-		final double centerY = getY() + (getHeight() / 2);
+		this.centerX = (float)(getX() + (getWidth() / 2));
+		this.centerY = (float)(getY() + (getHeight() / 2));
 		
 		//update the coordinates of the outline
-		for (int index = 0; index < xpoints.length; index++)
+		for (int index = 0; index < outlineX.length; index++)
 		{
-            //determine the new coordinates for the outline based on the rotation
-            final double newX = (xpoints[index] * Math.cos(radians)) - (ypoints[index] * Math.sin(radians));
-            final double newY = (xpoints[index] * Math.sin(radians)) + (ypoints[index] * Math.cos(radians));
-            
-            //add the points to the path accordingly
-            if (index == 0)
-            {
-            	getOutline().moveTo((int)(centerX + newX), (int)(centerY + newY));
-            }
-            else
-            {
-            	getOutline().lineTo((int)(centerX + newX), (int)(centerY + newY));
-            }
+            //translate the rotated offsets to the current location
+            outlineX[index] = centerX + offsetX[index];
+            outlineY[index] = centerY + offsetY[index];
 		}
+		
+		//check which edges of the screen we cross
+		this.ghost = Wrap.getMask(centerX, centerY, radius);
 	}
 	
 	/**
 	 * Update the location based on the velocity.<br>
-	 * We will also make sure we stay on the screen
+	 * Once our center leaves an edge of the screen we wrap around to the opposite edge
 	 */
 	protected void updateLocation()
 	{
-		//update location
-		setX(getX() + getDX());
-		setY(getY() + getDY());
-		
-		//make sure we stay in bounds
-		if (getX() < -getWidth())
-			setX(GamePanel.WIDTH);
-		if (getX() > GamePanel.WIDTH)
-			setX(-getWidth());
-		if (getY() < -getHeight())
-			setY(GamePanel.HEIGHT);
-		if (getY() > GamePanel.HEIGHT)
-			setY(-getHeight());
+		//store where we were so the render can be interpolated
+		resetInterpolation();
+		
+		//update location, keeping the center on the screen
+		setX(Wrap.wrap(getX() + getDX() + (getWidth() / 2), GamePanel.WIDTH) - (getWidth() / 2));
+		setY(Wrap.wrap(getY() + getDY() + (getHeight() / 2), GamePanel.HEIGHT) - (getHeight() / 2));
 		
 		//now that we updated the location, update the outline
 		updateOutline();	
 	}
 	
+	/**
+	 * Remember the current location and rotation as the previous, so the next render won't interpolate any movement before now
+	 */
+	public void resetInterpolation()
+	{
+		this.previousX = getX();
+		this.previousY = getY();
+		this.previousRotation = getRotation();
+		this.previous = true;
+	}
+	
+	/**
+	 * Assign the interpolation applied to every entity when rendering
+	 * @param interpolation How far we are between the previous update and the next (0.0 - 1.0)
+	 */
+	public static void setInterpolation(final float interpolation)
+	{
+		Entity.interpolation = (interpolation < 0) ? 0 : (interpolation > 1) ? 1 : interpolation;
+	}
+	
+	/**
+	 * Get the interpolation
+	 * @return How far we are between the previous update and the next (0.0 - 1.0)
+	 */
+	public static float getInterpolation()
+	{
+		return Entity.interpolation;
+	}
+	
 	/**
 	 * Is the entity dead?
 	 * @return true = yes, false = no
@@ -255,16 +475,106 @@ public abstract class Entity extends com.gamesbykevin.androidframework.base.Enti
 		if (isDead())
 			return;
 		
-		//save the canvas here so the rotation changes below only affect this object
-		canvas.save(Canvas.MATRIX_SAVE_FLAG);
-		
-		//rotate the canvas
-        canvas.rotate(getRotation() + ROTATION_OFFSET, (float)(getX() + (getWidth() / 2)), (float)(getY() + (getHeight() / 2)));
-        
-        //render the current animation
-        super.render(canvas);
-        
-        //restore canvas to previous state so only this object is affected
-        canvas.restore();
+		//store the current location
+		final double x = getX();
+		final double y = getY();
+		
+		//the rotation we will render at
+		float rotation = getRotation();
+		
+		//if we moved a normal distance since the last update, render between the previous and current location
+		if (hasContinuousMove())
+		{
+			//interpolate the location, the short way around the screen
+			super.setX(previousX + (getMoveX() * interpolation));
+			super.setY(previousY + (getMoveY() * interpolation));
+			
+			//find the shortest turn between the previous and current rotation
+			float difference = rotation - previousRotation;
+			
+			if (difference > ROTATION_MAX / 2)
+				difference -= ROTATION_MAX;
+			if (difference < -ROTATION_MAX / 2)
+				difference += ROTATION_MAX;
+			
+			//interpolate the rotation
+			rotation = previousRotation + (difference * interpolation);
+		}
+		
+		//the current frame of the animation
+		final AnimationTemplate template = getAnimation().getTemplate();
+		
+		if (template != null)
+		{
+			//the edges of the screen the image crosses at any rotation
+			final int mask = Wrap.getMask(getX() + (getWidth() / 2), getY() + (getHeight() / 2), Math.sqrt((getWidth() * getWidth()) + (getHeight() * getHeight())) / 2);
+			
+			//render the entity
+			draw(canvas, template, rotation, 0, 0);
+			
+			//if we cross an edge, also render the wrapped copies that appear on the opposite edges
+			if (mask != 0)
+			{
+				final float offsetX = Wrap.getOffsetX(mask);
+				final float offsetY = Wrap.getOffsetY(mask);
+				
+				if (offsetX != 0)
+					draw(canvas, template, rotation, offsetX, 0);
+				if (offsetY != 0)
+					draw(canvas, template, rotation, 0, offsetY);
+				if (offsetX != 0 && offsetY != 0)
+					draw(canvas, template, rotation, offsetX, offsetY);
+			}
+		}
+		
+        //restore the actual location
+        super.setX(x);
+        super.setY(y);
+	}
+	
+	/**
+	 * Draw the current frame of the animation
+	 * @param canvas Where we draw
+	 * @param template The animation being played
+	 * @param rotation The rotation to draw at (degrees)
+	 * @param offsetX The distance to move the frame on the x-axis, used to draw wrapped copies
+	 * @param offsetY The distance to move the frame on the y-axis, used to draw wrapped copies
+	 */
+	private void draw(final Canvas canvas, final AnimationTemplate template, final float rotation, final float offsetX, final float offsetY)
+	{
+		//the simulation never renders, so the rectangle is only created here
+		if (destination == null)
+			destination = new RectF();
+		
+		//the center of the frame
+		final float x = (float)(getX() + (getWidth() / 2)) + offsetX;
+		final float y = (float)(getY() + (getHeight() / 2)) + offsetY;
+		
+		//if the frame was drawn ahead of time, copy the closest angle
+		final RotationCache cache = RotationCache.get(template);
+		
+		if (cache != null)
+		{
+			//the cell is larger than the entity, so scale the cell and center it
+			final float size = (float)(cache.getSize() * (getWidth() / cache.getWidth()));
+			
+			destination.set(x - (size / 2), y - (size / 2), x + (size / 2), y + (size / 2));
+			canvas.drawBitmap(cache.getImage(), cache.getCell(getAnimation().getFrame(), RotationCache.getAngle(rotation + ROTATION_OFFSET)), destination, null);
+		}
+		else
+		{
+			//save the canvas here so the rotation changes below only affect this object
+			canvas.save(Canvas.MATRIX_SAVE_FLAG);
+			
+			//rotate the canvas
+			canvas.rotate(rotation + ROTATION_OFFSET, x, y);
+			
+			//render the current frame
+			destination.set(x - (float)(getWidth() / 2), y - (float)(getHeight() / 2), x + (float)(getWidth() / 2), y + (float)(getHeight() / 2));
+			canvas.drawBitmap(template.getImage(), template.getFrame(getAnimation().getFrame()), destination, null);
+			
+			//restore canvas to previous state so only this object is affected
+			canvas.restore();
+		}
 	}
 }
\ No newline at end of file
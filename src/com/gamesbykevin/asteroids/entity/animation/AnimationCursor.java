@@ -0,0 +1,103 @@
+package com.gamesbykevin.asteroids.entity.animation;
+
+import com.gamesbykevin.asteroids.thread.MainThread;
+
+/**
+ * The progress of a single entity through an animation template.<br>
+ * Time is counted in updates so the animation plays the same no matter how fast the device is
+ * @author GOD
+ */
+public final class AnimationCursor
+{
+	//the animation being played
+	private AnimationTemplate template;
+	
+	//the current frame
+	private int frame = 0;
+	
+	//the time the current frame has been displayed (milliseconds)
+	private long elapsed = 0;
+	
+	//has the animation finished
+	private boolean finished = false;
+	
+	/**
+	 * Play the template, if the template is different the animation will start from the beginning
+	 * @param template The animation we want to play
+	 */
+	public void setTemplate(final AnimationTemplate template)
+	{
+		if (this.template == template)
+			return;
+		
+		this.template = template;
+		reset();
+	}
+	
+	/**
+	 * Get the template
+	 * @return The animation being played, null if none has been assigned
+	 */
+	public AnimationTemplate getTemplate()
+	{
+		return this.template;
+	}
+	
+	/**
+	 * Get the frame
+	 * @return The index of the current frame
+	 */
+	public int getFrame()
+	{
+		return this.frame;
+	}
+	
+	/**
+	 * Has the animation finished?
+	 * @return true if the animation doesn't loop and the last frame has been displayed, false otherwise
+	 */
+	public boolean hasFinished()
+	{
+		return this.finished;
+	}
+	
+	/**
+	 * Start the animation from the beginning
+	 */
+	public void reset()
+	{
+		this.frame = 0;
+		this.elapsed = 0;
+		this.finished = false;
+	}
+	
+	/**
+	 * Add the time of one update and move to the next frame when it is time
+	 */
+	public void update()
+	{
+		//nothing to update if there is one frame or we are done
+		if (template == null || template.getCount() < 2 || hasFinished())
+			return;
+		
+		elapsed += MainThread.TICK_DURATION;
+		
+		if (elapsed < template.getDelay())
+			return;
+		
+		elapsed -= template.getDelay();
+		
+		if (frame < template.getCount() - 1)
+		{
+			frame++;
+		}
+		else if (template.hasLoop())
+		{
+			frame = 0;
+		}
+		else
+		{
+			finished = true;
+		}
+	}
+}
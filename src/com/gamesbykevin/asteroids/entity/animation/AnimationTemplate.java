@@ -0,0 +1,153 @@
+package com.gamesbykevin.asteroids.entity.animation;
+
+import java.util.HashMap;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+/**
+ * The frames of an animation and how they are played.<br>
+ * A template is created once and shared by every entity using the animation, the progress of each entity is kept in an animation cursor
+ * @author GOD
+ */
+public final class AnimationTemplate
+{
+	//every template created
+	private static final HashMap<Object, AnimationTemplate> TEMPLATES = new HashMap<Object, AnimationTemplate>();
+	
+	//the image containing every frame
+	private final Bitmap image;
+	
+	//the location of the first frame, the size of each frame and the number of columns
+	private final int x, y, w, h, cols;
+	
+	//the number of frames
+	private final int total;
+	
+	//the location of each frame on the image, created when first rendered and never changed
+	private Rect[] frames;
+	
+	//the time each frame is displayed (milliseconds)
+	private final long delay;
+	
+	//does the animation start over once complete
+	private final boolean loop;
+	
+	private AnimationTemplate(final Bitmap image, final int x, final int y, final int w, final int h, final int cols, final int total, final long delay, final boolean loop)
+	{
+		this.image = image;
+		this.x = x;
+		this.y = y;
+		this.w = w;
+		this.h = h;
+		this.cols = cols;
+		this.total = total;
+		this.delay = delay;
+		this.loop = loop;
+	}
+	
+	/**
+	 * Get the template of a single frame
+	 * @param key The unique key of this animation
+	 * @param image The image containing the frame
+	 * @param x x-coordinate of the frame
+	 * @param y y-coordinate of the frame
+	 * @param w The width of the frame
+	 * @param h The height of the frame
+	 * @return The shared template
+	 */
+	public static AnimationTemplate get(final Object key, final Bitmap image, final int x, final int y, final int w, final int h)
+	{
+		return get(key, image, x, y, w, h, 1, 1, 0, false);
+	}
+	
+	/**
+	 * Get the template.<br>
+	 * The template is only created the first time, or if the image has since been loaded again
+	 * @param key The unique key of this animation
+	 * @param image The image containing every frame
+	 * @param x x-coordinate of the first frame
+	 * @param y y-coordinate of the first frame
+	 * @param w The width of each frame
+	 * @param h The height of each frame
+	 * @param cols The number of columns of frames
+	 * @param total The number of frames
+	 * @param delay The time each frame is displayed (milliseconds)
+	 * @param loop Does the animation start over once complete
+	 * @return The shared template
+	 */
+	public static AnimationTemplate get(final Object key, final Bitmap image, final int x, final int y, final int w, final int h, final int cols, final int total, final long delay, final boolean loop)
+	{
+		AnimationTemplate template = TEMPLATES.get(key);
+		
+		//if the template doesn't exist yet, or the image was reloaded, create it
+		if (template == null || template.image != image)
+		{
+			template = new AnimationTemplate(image, x, y, w, h, cols, total, delay, loop);
+			TEMPLATES.put(key, template);
+		}
+		
+		return template;
+	}
+	
+	/**
+	 * Get the image
+	 * @return The image containing every frame
+	 */
+	public Bitmap getImage()
+	{
+		return this.image;
+	}
+	
+	/**
+	 * Get the frame
+	 * @param index The index of the frame
+	 * @return The location of the frame on the image, this must not be changed
+	 */
+	public Rect getFrame(final int index)
+	{
+		//the frames are only needed to render, so the simulation never creates them
+		if (this.frames == null)
+		{
+			this.frames = new Rect[total];
+			
+			//the frames are placed left to right, then top to bottom
+			for (int i = 0; i < total; i++)
+			{
+				final int left = x + ((i % cols) * w);
+				final int top = y + ((i / cols) * h);
+				
+				this.frames[i] = new Rect(left, top, left + w, top + h);
+			}
+		}
+		
+		return this.frames[index];
+	}
+	
+	/**
+	 * Get the number of frames
+	 * @return The total number of frames in the animation
+	 */
+	public int getCount()
+	{
+		return this.total;
+	}
+	
+	/**
+	 * Get the delay
+	 * @return The time each frame is displayed (milliseconds)
+	 */
+	public long getDelay()
+	{
+		return this.delay;
+	}
+	
+	/**
+	 * Does the animation loop?
+	 * @return true = yes, false = no
+	 */
+	public boolean hasLoop()
+	{
+		return this.loop;
+	}
+}
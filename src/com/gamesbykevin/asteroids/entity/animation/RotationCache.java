@@ -0,0 +1,237 @@
+package com.gamesbykevin.asteroids.entity.animation;
+
+import java.util.HashMap;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Every frame of an animation drawn ahead of time at a fixed number of angles.<br>
+ * An entity using a cached animation only needs to copy the closest angle when rendered, instead of rotating the canvas.
+ * Animations are added by choice, and only while the total memory is within the budget
+ * @author GOD
+ */
+public final class RotationCache
+{
+	/**
+	 * Do we use the rotation cache?
+	 */
+	public static final boolean ENABLED = true;
+	
+	/**
+	 * The number of angles drawn for each frame
+	 */
+	public static final int ANGLES = 64;
+	
+	/**
+	 * The most memory used by every cache combined (bytes)
+	 */
+	public static final long BUDGET = 16L * 1024L * 1024L;
+	
+	/**
+	 * The number of cells across each atlas
+	 */
+	private static final int COLUMNS = 8;
+	
+	/**
+	 * The memory of each pixel (bytes)
+	 */
+	private static final int BYTES_PER_PIXEL = 4;
+	
+	/**
+	 * The number of degrees in a full turn
+	 */
+	private static final float DEGREES = 360f;
+	
+	//every cache created, the key is the template
+	private static final HashMap<AnimationTemplate, RotationCache> CACHES = new HashMap<AnimationTemplate, RotationCache>();
+	
+	//the memory used by every cache (bytes)
+	private static long used = 0;
+	
+	//the image containing every frame at every angle
+	private Bitmap atlas;
+	
+	//the location of each cell on the atlas, the index is (frame * ANGLES) + angle
+	private final Rect[] cells;
+	
+	//the width and height of each cell, large enough for the frame at any angle
+	private final int size;
+	
+	//the width of each frame before it was rotated
+	private final int width;
+	
+	private RotationCache(final AnimationTemplate template)
+	{
+		final Rect frame = template.getFrame(0);
+		
+		//the diagonal of the frame fits every angle
+		this.width = frame.width();
+		this.size = getSize(frame);
+		
+		final int total = template.getCount() * ANGLES;
+		final int rows = (total + COLUMNS - 1) / COLUMNS;
+		
+		this.cells = new Rect[total];
+		this.atlas = Bitmap.createBitmap(COLUMNS * size, rows * size, Bitmap.Config.ARGB_8888);
+		
+		final Canvas canvas = new Canvas(atlas);
+		final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+		final RectF destination = new RectF();
+		
+		for (int index = 0; index < total; index++)
+		{
+			final int left = (index % COLUMNS) * size;
+			final int top = (index / COLUMNS) * size;
+			
+			this.cells[index] = new Rect(left, top, left + size, top + size);
+			
+			//the frame and angle of this cell
+			final Rect source = template.getFrame(index / ANGLES);
+			final float angle = (index % ANGLES) * (DEGREES / ANGLES);
+			
+			//draw the frame rotated around the center of the cell
+			final float x = left + (size / 2f);
+			final float y = top + (size / 2f);
+			
+			destination.set(x - (source.width() / 2f), y - (source.height() / 2f), x + (source.width() / 2f), y + (source.height() / 2f));
+			
+			canvas.save();
+			canvas.rotate(angle, x, y);
+			canvas.drawBitmap(template.getImage(), source, destination, paint);
+			canvas.restore();
+		}
+	}
+	
+	/**
+	 * Add the animation to the cache.<br>
+	 * Nothing is added if the cache is disabled, the image isn't loaded, or the animation doesn't fit in the remaining budget
+	 * @param template The animation we want to render without rotating
+	 * @return true if the animation is cached, false otherwise
+	 */
+	public static boolean add(final AnimationTemplate template)
+	{
+		if (!ENABLED)
+			return false;
+		
+		//without the image there is nothing to draw, such as when the game is simulated without the screens
+		if (template.getImage() == null)
+			return false;
+		
+		//it may already exist
+		if (CACHES.containsKey(template))
+			return true;
+		
+		final int size = getSize(template.getFrame(0));
+		final long bytes = (long)size * size * BYTES_PER_PIXEL * template.getCount() * ANGLES;
+		
+		//if this doesn't fit, the animation will be rotated when rendered
+		if (used + bytes > BUDGET)
+			return false;
+		
+		CACHES.put(template, new RotationCache(template));
+		used += bytes;
+		
+		return true;
+	}
+	
+	/**
+	 * Get the cache
+	 * @param template The animation
+	 * @return The cache of the animation, null if the animation was not added
+	 */
+	public static RotationCache get(final AnimationTemplate template)
+	{
+		return CACHES.get(template);
+	}
+	
+	/**
+	 * Remove every cache and recycle the images
+	 */
+	public static void clear()
+	{
+		for (RotationCache cache : CACHES.values())
+		{
+			if (cache.atlas != null)
+			{
+				cache.atlas.recycle();
+				cache.atlas = null;
+			}
+		}
+		
+		CACHES.clear();
+		used = 0;
+	}
+	
+	/**
+	 * Get the memory used
+	 * @return The memory used by every cache combined (bytes)
+	 */
+	public static long getUsed()
+	{
+		return used;
+	}
+	
+	/**
+	 * Get the closest angle
+	 * @param degrees The rotation (degrees)
+	 * @return The index of the closest angle (0 - ANGLES - 1)
+	 */
+	public static int getAngle(final float degrees)
+	{
+		final int angle = Math.round(degrees * (ANGLES / DEGREES)) % ANGLES;
+		
+		return (angle < 0) ? angle + ANGLES : angle;
+	}
+	
+	/**
+	 * Get the image
+	 * @return The image containing every frame at every angle
+	 */
+	public Bitmap getImage()
+	{
+		return this.atlas;
+	}
+	
+	/**
+	 * Get the cell
+	 * @param frame The index of the frame
+	 * @param angle The index of the angle
+	 * @return The location of the rotated frame on the image, this must not be changed
+	 */
+	public Rect getCell(final int frame, final int angle)
+	{
+		return this.cells[(frame * ANGLES) + angle];
+	}
+	
+	/**
+	 * Get the size
+	 * @return The width and height of each cell (pixels)
+	 */
+	public int getSize()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * Get the width
+	 * @return The width of each frame before it was rotated (pixels)
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+	
+	/**
+	 * Get the size of a cell
+	 * @param frame The location of the frame
+	 * @return The diagonal of the frame, so the frame fits at any angle
+	 */
+	private static int getSize(final Rect frame)
+	{
+		return (int)Math.ceil(Math.sqrt((frame.width() * frame.width()) + (frame.height() * frame.height())));
+	}
+}
@@ -1,10 +1,11 @@
 package com.gamesbykevin.asteroids.entity.asteroid;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Rng;
 import com.gamesbykevin.asteroids.entity.Entity;
-import com.gamesbykevin.asteroids.panel.GamePanel;
+import com.gamesbykevin.asteroids.entity.animation.AnimationTemplate;
+import com.gamesbykevin.asteroids.entity.animation.RotationCache;
 
 public final class Asteroid extends Entity 
 {
@@ -92,6 +93,15 @@ public final class Asteroid extends Entity
 	//the point value for this asteroid
 	private final int score;
 	
+	/**
+	 * Asteroid types wider or taller than this (pixels) are rotated when rendered instead of using the rotation cache
+	 */
+	private static final int ROTATION_CACHE_SIZE = 50;
+	
+	//the field containing this asteroids state, and the slot in that field
+	private AsteroidField field;
+	private int slot = -1;
+	
 	protected Asteroid(final Type type, final int[] xpoints, final int[] ypoints) 
 	{
 		super(xpoints, ypoints);
@@ -136,26 +146,68 @@ public final class Asteroid extends Entity
 				break;
 		}
 		
-		//create animation
-		Animation animation = new Animation(Images.getImage(Assets.ImageGameKey.Asteroids), type.getX(), type.getY(), type.getWidth(), type.getHeight());
-		
-		//add to the sprite sheet
-		super.getSpritesheet().add(type, animation);
+		//every asteroid of this type shares the same animation
+		getAnimation().setTemplate(getTemplate(type));
 		
 		//setup dimensions
 		super.setWidth(type.getWidth());
 		super.setHeight(type.getHeight());
 		
+		//make sure the outline matches the dimensions
+		updateOutline();
+	}
+	
+	/**
+	 * Get the shared animation of the type.<br>
+	 * The smaller types are also added to the rotation cache, the big types will be rotated when rendered
+	 * @param type The type of asteroid
+	 * @return The animation template of the type
+	 */
+	protected static AnimationTemplate getTemplate(final Type type)
+	{
+		final AnimationTemplate template = AnimationTemplate.get(type, Images.getImage(Assets.ImageGameKey.Asteroids), type.getX(), type.getY(), type.getWidth(), type.getHeight());
+		
+		if (type.getWidth() <= ROTATION_CACHE_SIZE && type.getHeight() <= ROTATION_CACHE_SIZE)
+			RotationCache.add(template);
+		
+		return template;
+	}
+	
+	/**
+	 * Reset the asteroid so it can be used again.<br>
+	 * The asteroid will be placed at the location with a new random velocity and rotation speed
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param random The random number generator used to pick the velocity and rotation speed
+	 */
+	protected final void reset(final double x, final double y, final Rng random)
+	{
+		//the asteroid is alive again
+		super.setDead(false);
+		
+		//set the location
+		super.setX(x);
+		super.setY(y);
+		
+		//start with no rotation
+		super.setRotation(ROTATION_MIN);
+		
 		//calculate a random velocity
-		final double dx = (GamePanel.RANDOM.nextFloat() * VELOCITY_MAX * 2) - VELOCITY_MAX;
-		final double dy = (GamePanel.RANDOM.nextFloat() * VELOCITY_MAX * 2) - VELOCITY_MAX;
+		final double dx = (random.nextFloat() * VELOCITY_MAX * 2) - VELOCITY_MAX;
+		final double dy = (random.nextFloat() * VELOCITY_MAX * 2) - VELOCITY_MAX;
 		
 		//start moving in a random direction
 		super.setDX(dx);
 		super.setDY(dy);
 		
 		//pick a random rotation speed
-		setRotationSpeed((GamePanel.RANDOM.nextFloat() * ROTATE_SPEED_MAX * 2) - ROTATE_SPEED_MAX);
+		setRotationSpeed((random.nextFloat() * ROTATE_SPEED_MAX * 2) - ROTATE_SPEED_MAX);
+		
+		//make sure the outline matches the new location
+		updateOutline();
+		
+		//we don't want to render a move from the previous location
+		resetInterpolation();
 	}
 	
 	/**
@@ -176,6 +228,55 @@ public final class Asteroid extends Entity
 		return this.type;
 	}
 	
+	/**
+	 * Link this asteroid to the slot in the field
+	 * @param field The field containing the state of this asteroid, null if it no longer belongs to a field
+	 * @param slot The slot in the field
+	 */
+	protected void setField(final AsteroidField field, final int slot)
+	{
+		this.field = field;
+		this.slot = slot;
+	}
+	
+	/**
+	 * Get the slot
+	 * @return The slot of this asteroid in the field, -1 if it does not belong to a field
+	 */
+	protected int getSlot()
+	{
+		return this.slot;
+	}
+	
+	/**
+	 * Assign the state calculated by the field
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param rotation The rotation (degrees)
+	 */
+	protected void setState(final double x, final double y, final float rotation)
+	{
+		//store where we were so the render can be interpolated
+		resetInterpolation();
+		
+		super.setX(x);
+		super.setY(y);
+		super.setRotation(rotation);
+		
+		//now that we updated the location, update the outline
+		updateOutline();
+	}
+	
+	@Override
+	public void setDead(final boolean dead)
+	{
+		super.setDead(dead);
+		
+		//keep the field up to date
+		if (field != null)
+			field.setAlive(slot, !dead);
+	}
+	
 	@Override
 	public void update() throws Exception 
 	{
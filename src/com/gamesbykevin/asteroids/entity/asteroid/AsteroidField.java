@@ -0,0 +1,543 @@
+package com.gamesbykevin.asteroids.entity.asteroid;
+
+import java.util.ArrayList;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.collision.SpatialHash;
+import com.gamesbykevin.asteroids.entity.geometry.Wrap;
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+/**
+ * The state of every asteroid stored in parallel arrays.<br>
+ * The movement of all asteroids is updated here in a single loop over primitive values,
+ * and the result is then copied to each asteroid object for rendering and collision detection
+ * @author GOD
+ */
+public final class AsteroidField implements Disposable
+{
+	/**
+	 * Do the asteroids bounce off each other?<br>
+	 * If false the asteroids pass through each other
+	 */
+	public static final boolean BOUNCE = false;
+
+	/**
+	 * The default number of asteroids we have room for
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	//all of the asteroid types, the type ordinal is the index
+	private static final Asteroid.Type[] TYPES = Asteroid.Type.values();
+
+	//the number of asteroids in the field
+	private int count = 0;
+
+	//the location and velocity
+	private double[] x, y, dx, dy;
+
+	//the rotation and rotation speed
+	private float[] rotation, rotationSpeed;
+
+	//the type ordinal and the dimensions of that type
+	private int[] type, width, height;
+
+	//is the asteroid alive
+	private boolean[] alive;
+
+	//the asteroid object for each slot
+	private Asteroid[] asteroids;
+
+	public AsteroidField()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public AsteroidField(final int capacity)
+	{
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.dx = new double[capacity];
+		this.dy = new double[capacity];
+		this.rotation = new float[capacity];
+		this.rotationSpeed = new float[capacity];
+		this.type = new int[capacity];
+		this.width = new int[capacity];
+		this.height = new int[capacity];
+		this.alive = new boolean[capacity];
+		this.asteroids = new Asteroid[capacity];
+	}
+
+	/**
+	 * Add the asteroid to the field, the current state of the asteroid will be copied
+	 * @param asteroid The asteroid we want to add
+	 * @return The slot assigned to the asteroid
+	 */
+	public int add(final Asteroid asteroid)
+	{
+		final int slot = add(asteroid.getType(), asteroid.getX(), asteroid.getY(), asteroid.getDX(), asteroid.getDY(), asteroid.getRotation(), asteroid.getRotationSpeed());
+
+		//link the asteroid to this slot
+		asteroids[slot] = asteroid;
+		asteroid.setField(this, slot);
+
+		return slot;
+	}
+
+	/**
+	 * Add an asteroid to the field without an asteroid object
+	 * @param type The type of asteroid
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param dx x-velocity
+	 * @param dy y-velocity
+	 * @param rotation The current rotation (degrees)
+	 * @param rotationSpeed The rotation speed (degrees)
+	 * @return The slot assigned to the asteroid
+	 */
+	public int add(final Asteroid.Type type, final double x, final double y, final double dx, final double dy, final float rotation, final float rotationSpeed)
+	{
+		//make sure we have room
+		if (count >= this.x.length)
+			grow();
+
+		final int slot = count;
+
+		this.x[slot] = x;
+		this.y[slot] = y;
+		this.dx[slot] = dx;
+		this.dy[slot] = dy;
+		this.rotation[slot] = rotation;
+		this.rotationSpeed[slot] = rotationSpeed;
+		this.type[slot] = type.ordinal();
+		this.width[slot] = type.getWidth();
+		this.height[slot] = type.getHeight();
+		this.alive[slot] = true;
+		this.asteroids[slot] = null;
+
+		count++;
+
+		return slot;
+	}
+
+	/**
+	 * Remove the asteroid in the slot.<br>
+	 * The last asteroid will be moved into this slot, so the order is not kept
+	 * @param slot The slot to remove
+	 * @return The asteroid object that was in the slot, may be null
+	 */
+	public Asteroid remove(final int slot)
+	{
+		final Asteroid removed = asteroids[slot];
+
+		//the asteroid no longer belongs to the field
+		if (removed != null)
+			removed.setField(null, -1);
+
+		final int last = count - 1;
+
+		//move the last asteroid into this slot
+		if (slot != last)
+		{
+			x[slot] = x[last];
+			y[slot] = y[last];
+			dx[slot] = dx[last];
+			dy[slot] = dy[last];
+			rotation[slot] = rotation[last];
+			rotationSpeed[slot] = rotationSpeed[last];
+			type[slot] = type[last];
+			width[slot] = width[last];
+			height[slot] = height[last];
+			alive[slot] = alive[last];
+			asteroids[slot] = asteroids[last];
+
+			if (asteroids[slot] != null)
+				asteroids[slot].setField(this, slot);
+		}
+
+		asteroids[last] = null;
+		count--;
+
+		return removed;
+	}
+
+	/**
+	 * Remove every asteroid
+	 */
+	public void clear()
+	{
+		for (int slot = 0; slot < count; slot++)
+		{
+			if (asteroids[slot] != null)
+			{
+				asteroids[slot].setField(null, -1);
+				asteroids[slot] = null;
+			}
+		}
+
+		count = 0;
+	}
+
+	/**
+	 * Move and rotate every living asteroid, keeping them on the screen
+	 */
+	public void update()
+	{
+		update(0, count);
+	}
+
+	/**
+	 * Move and rotate the living asteroids in the range of slots, keeping them on the screen
+	 * @param start The first slot
+	 * @param end The slot after the last one to update
+	 */
+	public void update(final int start, final int end)
+	{
+		for (int slot = start; slot < end; slot++)
+		{
+			if (!alive[slot])
+				continue;
+
+			//the asteroid will always be spinning, keep the rotation in range the same way the entity does
+			float r = rotation[slot] + rotationSpeed[slot];
+
+			if (r < Entity.ROTATION_MIN)
+				r = Entity.ROTATION_MAX - 1;
+			if (r > Entity.ROTATION_MAX)
+				r = Entity.ROTATION_MIN + 1;
+
+			rotation[slot] = r;
+
+			//update location, wrapping around the screen the same way the entity does
+			x[slot] = Wrap.wrap(x[slot] + dx[slot] + (width[slot] / 2.0), GamePanel.WIDTH) - (width[slot] / 2.0);
+			y[slot] = Wrap.wrap(y[slot] + dy[slot] + (height[slot] / 2.0), GamePanel.HEIGHT) - (height[slot] / 2.0);
+		}
+	}
+
+	/**
+	 * Bounce the asteroids that touch off each other.<br>
+	 * Each asteroid is a circle with a mass from the dimensions of its type, and only the asteroids sharing a cell of the grid are checked.
+	 * The grid still has the locations from the previous update, which is close enough since an asteroid moves much less than a cell each update
+	 * @param grid The grid containing the asteroids
+	 * @param candidates List used to store the asteroids found in the grid
+	 */
+	public void bounce(final SpatialHash<Asteroid> grid, final ArrayList<Asteroid> candidates)
+	{
+		for (int slot = 0; slot < count; slot++)
+		{
+			if (!alive[slot] || asteroids[slot] == null)
+				continue;
+
+			grid.query(asteroids[slot], candidates);
+
+			for (int index = 0; index < candidates.size(); index++)
+			{
+				final int other = candidates.get(index).getSlot();
+
+				//check each pair once, from the lower slot
+				if (other > slot && alive[other])
+					bounce(slot, other);
+			}
+		}
+	}
+
+	/**
+	 * Bounce the asteroids off each other if they touch.<br>
+	 * The asteroids are pushed apart, and if they are moving together the velocity along the line between the centers is exchanged the way an elastic collision would
+	 * @param a The slot of the first asteroid
+	 * @param b The slot of the second asteroid
+	 */
+	private void bounce(final int a, final int b)
+	{
+		//the line between the centers, the short way around the screen
+		double nx = Wrap.getShortest((x[b] + (width[b] / 2.0)) - (x[a] + (width[a] / 2.0)), GamePanel.WIDTH);
+		double ny = Wrap.getShortest((y[b] + (height[b] / 2.0)) - (y[a] + (height[a] / 2.0)), GamePanel.HEIGHT);
+
+		final double radius = getRadius(a) + getRadius(b);
+		final double distance2 = (nx * nx) + (ny * ny);
+
+		//if the circles don't touch, or the centers are in the same place, there is nothing to do
+		if (distance2 >= radius * radius || distance2 == 0)
+			return;
+
+		final double distance = Math.sqrt(distance2);
+
+		nx /= distance;
+		ny /= distance;
+
+		//the mass of each asteroid
+		final double massA = getMass(a);
+		final double massB = getMass(b);
+		final double total = massA + massB;
+
+		//push the asteroids apart, the lighter asteroid moves further
+		final double overlap = radius - distance;
+
+		x[a] = Wrap.wrap(x[a] + (width[a] / 2.0) - (nx * overlap * (massB / total)), GamePanel.WIDTH) - (width[a] / 2.0);
+		y[a] = Wrap.wrap(y[a] + (height[a] / 2.0) - (ny * overlap * (massB / total)), GamePanel.HEIGHT) - (height[a] / 2.0);
+		x[b] = Wrap.wrap(x[b] + (width[b] / 2.0) + (nx * overlap * (massA / total)), GamePanel.WIDTH) - (width[b] / 2.0);
+		y[b] = Wrap.wrap(y[b] + (height[b] / 2.0) + (ny * overlap * (massA / total)), GamePanel.HEIGHT) - (height[b] / 2.0);
+
+		//the speed the asteroids are moving together
+		final double speed = ((dx[b] - dx[a]) * nx) + ((dy[b] - dy[a]) * ny);
+
+		//if they are already moving apart, don't change the velocity
+		if (speed >= 0)
+			return;
+
+		dx[a] += nx * speed * ((2 * massB) / total);
+		dy[a] += ny * speed * ((2 * massB) / total);
+		dx[b] -= nx * speed * ((2 * massA) / total);
+		dy[b] -= ny * speed * ((2 * massA) / total);
+	}
+
+	/**
+	 * Get the radius used to bounce
+	 * @param slot The slot of the asteroid
+	 * @return Half the average of the width and height
+	 */
+	private double getRadius(final int slot)
+	{
+		return (width[slot] + height[slot]) / 4.0;
+	}
+
+	/**
+	 * Get the mass used to bounce
+	 * @param slot The slot of the asteroid
+	 * @return The area of the asteroid type
+	 */
+	private double getMass(final int slot)
+	{
+		return width[slot] * height[slot];
+	}
+
+	/**
+	 * Copy the state of the slot to the asteroid object
+	 * @param slot The slot to copy
+	 */
+	public void sync(final int slot)
+	{
+		if (asteroids[slot] != null && alive[slot])
+			asteroids[slot].setState(x[slot], y[slot], rotation[slot]);
+	}
+
+	/**
+	 * Assign the location
+	 * @param slot The slot of the asteroid
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 */
+	public void setLocation(final int slot, final double x, final double y)
+	{
+		this.x[slot] = x;
+		this.y[slot] = y;
+	}
+
+	/**
+	 * Assign the velocity
+	 * @param slot The slot of the asteroid
+	 * @param dx x-velocity
+	 * @param dy y-velocity
+	 */
+	public void setVelocity(final int slot, final double dx, final double dy)
+	{
+		this.dx[slot] = dx;
+		this.dy[slot] = dy;
+	}
+
+	/**
+	 * Flag the asteroid alive
+	 * @param slot The slot of the asteroid
+	 * @param alive true = yes, false = no
+	 */
+	public void setAlive(final int slot, final boolean alive)
+	{
+		this.alive[slot] = alive;
+	}
+
+	/**
+	 * Is the asteroid alive?
+	 * @param slot The slot of the asteroid
+	 * @return true = yes, false = no
+	 */
+	public boolean isAlive(final int slot)
+	{
+		return this.alive[slot];
+	}
+
+	/**
+	 * Get the number of asteroids
+	 * @return The number of slots in use
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * Get the asteroid object
+	 * @param slot The slot of the asteroid
+	 * @return The asteroid object linked to the slot, null if there is none
+	 */
+	public Asteroid get(final int slot)
+	{
+		return this.asteroids[slot];
+	}
+
+	/**
+	 * Get the type
+	 * @param slot The slot of the asteroid
+	 * @return The type of asteroid
+	 */
+	public Asteroid.Type getType(final int slot)
+	{
+		return TYPES[type[slot]];
+	}
+
+	/**
+	 * Get the x-coordinate
+	 * @param slot The slot of the asteroid
+	 * @return The x-coordinate
+	 */
+	public double getX(final int slot)
+	{
+		return this.x[slot];
+	}
+
+	/**
+	 * Get the y-coordinate
+	 * @param slot The slot of the asteroid
+	 * @return The y-coordinate
+	 */
+	public double getY(final int slot)
+	{
+		return this.y[slot];
+	}
+
+	/**
+	 * Get the x-velocity
+	 * @param slot The slot of the asteroid
+	 * @return The x-velocity
+	 */
+	public double getDX(final int slot)
+	{
+		return this.dx[slot];
+	}
+
+	/**
+	 * Get the y-velocity
+	 * @param slot The slot of the asteroid
+	 * @return The y-velocity
+	 */
+	public double getDY(final int slot)
+	{
+		return this.dy[slot];
+	}
+
+	/**
+	 * Get the rotation
+	 * @param slot The slot of the asteroid
+	 * @return The current rotation (degrees)
+	 */
+	public float getRotation(final int slot)
+	{
+		return this.rotation[slot];
+	}
+
+	/**
+	 * Get the width
+	 * @param slot The slot of the asteroid
+	 * @return The width of the asteroid type
+	 */
+	public int getWidth(final int slot)
+	{
+		return this.width[slot];
+	}
+
+	/**
+	 * Get the height
+	 * @param slot The slot of the asteroid
+	 * @return The height of the asteroid type
+	 */
+	public int getHeight(final int slot)
+	{
+		return this.height[slot];
+	}
+
+	/**
+	 * Double the capacity of every array
+	 */
+	private void grow()
+	{
+		final int capacity = x.length * 2;
+
+		x = copy(x, capacity);
+		y = copy(y, capacity);
+		dx = copy(dx, capacity);
+		dy = copy(dy, capacity);
+
+		final float[] rotation = new float[capacity];
+		System.arraycopy(this.rotation, 0, rotation, 0, count);
+		this.rotation = rotation;
+
+		final float[] rotationSpeed = new float[capacity];
+		System.arraycopy(this.rotationSpeed, 0, rotationSpeed, 0, count);
+		this.rotationSpeed = rotationSpeed;
+
+		type = copy(type, capacity);
+		width = copy(width, capacity);
+		height = copy(height, capacity);
+
+		final boolean[] alive = new boolean[capacity];
+		System.arraycopy(this.alive, 0, alive, 0, count);
+		this.alive = alive;
+
+		final Asteroid[] asteroids = new Asteroid[capacity];
+		System.arraycopy(this.asteroids, 0, asteroids, 0, count);
+		this.asteroids = asteroids;
+	}
+
+	/**
+	 * Copy the array into a new array
+	 * @param array The array to copy
+	 * @param capacity The size of the new array
+	 * @return The new array containing the existing values
+	 */
+	private double[] copy(final double[] array, final int capacity)
+	{
+		final double[] tmp = new double[capacity];
+		System.arraycopy(array, 0, tmp, 0, count);
+		return tmp;
+	}
+
+	/**
+	 * Copy the array into a new array
+	 * @param array The array to copy
+	 * @param capacity The size of the new array
+	 * @return The new array containing the existing values
+	 */
+	private int[] copy(final int[] array, final int capacity)
+	{
+		final int[] tmp = new int[capacity];
+		System.arraycopy(array, 0, tmp, 0, count);
+		return tmp;
+	}
+
+	@Override
+	public void dispose()
+	{
+		clear();
+
+		x = null;
+		y = null;
+		dx = null;
+		dy = null;
+		rotation = null;
+		rotationSpeed = null;
+		type = null;
+		width = null;
+		height = null;
+		alive = null;
+		asteroids = null;
+	}
+}
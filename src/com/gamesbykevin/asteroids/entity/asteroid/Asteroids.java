@@ -1,8 +1,11 @@
 package com.gamesbykevin.asteroids.entity.asteroid;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
-import com.gamesbykevin.asteroids.panel.GamePanel;
+import com.gamesbykevin.asteroids.common.Pool;
+import com.gamesbykevin.asteroids.common.Rng;
+import com.gamesbykevin.asteroids.entity.collision.SpatialHash;
 
 import android.graphics.Canvas;
 
@@ -10,6 +13,26 @@ public class Asteroids implements IAsteroids
 {
 	//list of asteroids in play
 	private ArrayList<Asteroid> asteroids;
+	
+	//the state of every asteroid in play
+	private AsteroidField field;
+	
+	//the grid used to find asteroids close to an entity
+	private SpatialHash<Asteroid> grid;
+	
+	//the random number generator used by the asteroids
+	private final Rng random;
+	
+	//the asteroids found in the grid when bouncing
+	private ArrayList<Asteroid> candidates;
+	
+	//the pool of reusable asteroids for each type
+	private HashMap<Asteroid.Type, Pool<Asteroid>> pools;
+	
+	/**
+	 * The maximum number of asteroids we will keep for reuse, for each type
+	 */
+	private static final int POOL_CAPACITY = 32;
 
 	//the coordinates for each asteroid, used for collision detection
     private static final int[] XPOINTS_BIG1 = new int[] {-42, -9, 42, 42, 2, -32, -28};
@@ -33,80 +56,129 @@ public class Asteroids implements IAsteroids
     private static final int[] XPOINTS_TINY2 = new int[] {-7, 1, 8, 3};
     private static final int[] YPOINTS_TINY2 = new int[] {8, -8, 0, 8};
     
-	public Asteroids()
+	/**
+	 * Create the asteroids
+	 * @param random The random number generator used for the velocity, rotation and children
+	 */
+	public Asteroids(final Rng random)
 	{
+		//store the random number generator
+		this.random = random;
+		
 		//create new list for the asteroids
 		this.asteroids = new ArrayList<Asteroid>();
+		
+		//create the field to store the asteroid state
+		this.field = new AsteroidField();
+		
+		//create the grid for collision detection
+		this.grid = new SpatialHash<Asteroid>();
+		
+		//create the list of asteroids found in the grid
+		this.candidates = new ArrayList<Asteroid>();
+		
+		//create a pool for each type of asteroid
+		this.pools = new HashMap<Asteroid.Type, Pool<Asteroid>>();
+		
+		for (final Asteroid.Type type : Asteroid.Type.values())
+		{
+			//prepare the animation now, so the rotation cache isn't drawn during game play
+			Asteroid.getTemplate(type);
+			
+			this.pools.put(type, new Pool<Asteroid>(POOL_CAPACITY)
+			{
+				@Override
+				protected Asteroid create() throws Exception
+				{
+					return Asteroids.this.create(type);
+				}
+			});
+		}
 	}
 	
 	@Override
 	public void add(final int x, final int y, final Asteroid.Type type) throws Exception
 	{
-		final Asteroid asteroid;
+		//get an asteroid of the type from the pool
+		final Asteroid asteroid = getPool(type).acquire();
+		
+		//set the location with a new velocity
+		asteroid.reset(x, y, random);
+		
+		//add to list
+		get().add(asteroid);
+		
+		//add to the field, the slot will match the index in the list
+		getField().add(asteroid);
 		
+		//add to the grid
+		getGrid().add(asteroid);
+	}
+	
+	/**
+	 * Create a new asteroid
+	 * @param type Type of asteroid we want to create
+	 * @return A new asteroid of the specified type
+	 * @throws Exception if specified asteroid type is not setup here
+	 */
+	private Asteroid create(final Asteroid.Type type) throws Exception
+	{
 		//create asteroid of type
 		switch (type)
 		{
 			case BrownBig1:
 			case GreyBig1:
-				asteroid = new Asteroid(type, XPOINTS_BIG1, YPOINTS_BIG1);
-				break;
+				return new Asteroid(type, XPOINTS_BIG1, YPOINTS_BIG1);
 				
 			case BrownBig2:
 			case GreyBig2:
-				asteroid = new Asteroid(type, XPOINTS_BIG2, YPOINTS_BIG2);
-				break;
+				return new Asteroid(type, XPOINTS_BIG2, YPOINTS_BIG2);
 				
 			case BrownBig3:
 			case GreyBig3:
-				asteroid = new Asteroid(type, XPOINTS_BIG3, YPOINTS_BIG3);
-				break;
+				return new Asteroid(type, XPOINTS_BIG3, YPOINTS_BIG3);
 				
 			case BrownBig4:
 			case GreyBig4:
-				asteroid = new Asteroid(type, XPOINTS_BIG4, YPOINTS_BIG4);
-				break;
+				return new Asteroid(type, XPOINTS_BIG4, YPOINTS_BIG4);
 				
 			case BrownMed1:
 			case GreyMed1:
-				asteroid = new Asteroid(type, XPOINTS_MED1, YPOINTS_MED1);
-				break;
+				return new Asteroid(type, XPOINTS_MED1, YPOINTS_MED1);
 				
 			case BrownMed2:
 			case GreyMed2:
-				asteroid = new Asteroid(type, XPOINTS_MED2, YPOINTS_MED2);
-				break;
+				return new Asteroid(type, XPOINTS_MED2, YPOINTS_MED2);
 				
 			case BrownSmall1:
 			case GreySmall1:
-				asteroid = new Asteroid(type, XPOINTS_SMALL1, YPOINTS_SMALL1);
-				break;
+				return new Asteroid(type, XPOINTS_SMALL1, YPOINTS_SMALL1);
 				
 			case BrownSmall2:
 			case GreySmall2:
-				asteroid = new Asteroid(type, XPOINTS_SMALL2, YPOINTS_SMALL2);
-				break;
+				return new Asteroid(type, XPOINTS_SMALL2, YPOINTS_SMALL2);
 				
 			case BrownTiny1:
 			case GreyTiny1:
-				asteroid = new Asteroid(type, XPOINTS_TINY1, YPOINTS_TINY1);
-				break;
+				return new Asteroid(type, XPOINTS_TINY1, YPOINTS_TINY1);
 				
 			case BrownTiny2:
 			case GreyTiny2:
-				asteroid = new Asteroid(type, XPOINTS_TINY2, YPOINTS_TINY2);
-				break;
+				return new Asteroid(type, XPOINTS_TINY2, YPOINTS_TINY2);
 				
 			default:
 				throw new Exception("Type not setup here " + type.toString());
 		}
-		
-		//set the location
-		asteroid.setX(x);
-		asteroid.setY(y);
-		
-		//add to list
-		get().add(asteroid);
+	}
+	
+	/**
+	 * Get the pool
+	 * @param type The type of asteroid
+	 * @return The pool containing the reusable asteroids of the specified type
+	 */
+	public Pool<Asteroid> getPool(final Asteroid.Type type)
+	{
+		return this.pools.get(type);
 	}
 	
 	@Override
@@ -120,35 +192,35 @@ public class Asteroids implements IAsteroids
 			case BrownBig2:
 			case BrownBig3:
 			case BrownBig4:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.BrownMed1 : Asteroid.Type.BrownMed2);
+				child = (random.nextBoolean() ? Asteroid.Type.BrownMed1 : Asteroid.Type.BrownMed2);
 				break;
 				
 			case GreyBig1:
 			case GreyBig2:
 			case GreyBig3:
 			case GreyBig4:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.GreyMed1 : Asteroid.Type.GreyMed2);
+				child = (random.nextBoolean() ? Asteroid.Type.GreyMed1 : Asteroid.Type.GreyMed2);
 				break;
 				
 			case BrownMed1:
 			case BrownMed2:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.BrownSmall1 : Asteroid.Type.BrownSmall2);
+				child = (random.nextBoolean() ? Asteroid.Type.BrownSmall1 : Asteroid.Type.BrownSmall2);
 				break;
 				
 			case GreyMed1:
 			case GreyMed2:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.GreySmall1 : Asteroid.Type.GreySmall2);
+				child = (random.nextBoolean() ? Asteroid.Type.GreySmall1 : Asteroid.Type.GreySmall2);
 				break;
 				
 				
 			case BrownSmall1:
 			case BrownSmall2:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.BrownTiny1 : Asteroid.Type.BrownTiny2);
+				child = (random.nextBoolean() ? Asteroid.Type.BrownTiny1 : Asteroid.Type.BrownTiny2);
 				break;
 				
 			case GreySmall1:
 			case GreySmall2:
-				child = (GamePanel.RANDOM.nextBoolean() ? Asteroid.Type.GreyTiny1 : Asteroid.Type.GreyTiny2);
+				child = (random.nextBoolean() ? Asteroid.Type.GreyTiny1 : Asteroid.Type.GreyTiny2);
 				break;
 				
 			case BrownTiny1:
@@ -181,31 +253,86 @@ public class Asteroids implements IAsteroids
 		return this.asteroids;
 	}
 	
+	/**
+	 * Get the field
+	 * @return The state of every asteroid stored in parallel arrays
+	 */
+	public AsteroidField getField()
+	{
+		return this.field;
+	}
+	
+	@Override
+	public void setLocation(final Asteroid asteroid, final double x, final double y)
+	{
+		//update the field
+		if (asteroid.getSlot() >= 0)
+			getField().setLocation(asteroid.getSlot(), x, y);
+		
+		//update the asteroid and make sure the move isn't rendered
+		asteroid.setState(x, y, asteroid.getRotation());
+		asteroid.resetInterpolation();
+	}
+	
+	@Override
+	public SpatialHash<Asteroid> getGrid()
+	{
+		return this.grid;
+	}
+	
+	@Override
+	public void clear()
+	{
+		//return every asteroid to the pool
+		for (int index = 0; index < get().size(); index++)
+		{
+			getPool(get().get(index).getType()).release(get().get(index));
+		}
+		
+		get().clear();
+		getField().clear();
+		getGrid().clear();
+	}
+	
 	@Override
 	public void update() throws Exception 
 	{
 		if (get() == null)
 			return;
 		
-		for (int index = 0; index < get().size(); index++)
+		//remove the dead asteroids
+		for (int index = 0; index < getField().getCount(); index++)
 		{
-			//get the current asteroid
-			Asteroid asteroid = get().get(index);
-			
-			//if it is dead, remove it
-			if (asteroid.isDead())
+			if (!getField().isAlive(index))
 			{
-				//remove from our list
-				get().remove(index);
+				//remove from the field, the last asteroid is moved into this slot
+				final Asteroid asteroid = getField().remove(index);
+				
+				//do the same in our list so the index matches the slot
+				final int last = get().size() - 1;
+				get().set(index, get().get(last));
+				get().remove(last);
 				
-				//move the index back
+				//return to the pool for reuse
+				getPool(asteroid.getType()).release(asteroid);
+				
+				//check the asteroid moved into this index
 				index--;
 			}
-			else
-			{
-				asteroid.update();
-			}
 		}
+		
+		//move all asteroids
+		FieldWorkers.run(getField(), FieldWorkers.Phase.Update);
+		
+		//bounce the asteroids that touch, this depends on the order so it stays on this thread
+		if (AsteroidField.BOUNCE)
+			getField().bounce(getGrid(), candidates);
+		
+		//copy the new state to each asteroid for rendering and collision detection
+		FieldWorkers.run(getField(), FieldWorkers.Phase.Sync);
+		
+		//now that the asteroids have moved, update the grid
+		getGrid().update();
 	}
 
 	@Override
@@ -214,8 +341,10 @@ public class Asteroids implements IAsteroids
 		if (get() == null)
 			return;
 		
-		for (Asteroid asteroid : get())
+		for (int index = 0; index < get().size(); index++)
 		{
+			final Asteroid asteroid = get().get(index);
+			
 			if (asteroid != null)
 				asteroid.render(canvas);
 		}
@@ -238,5 +367,35 @@ public class Asteroids implements IAsteroids
 			asteroids.clear();
 			asteroids = null;
 		}
+		
+		if (field != null)
+		{
+			field.dispose();
+			field = null;
+		}
+		
+		if (grid != null)
+		{
+			grid.dispose();
+			grid = null;
+		}
+		
+		if (candidates != null)
+		{
+			candidates.clear();
+			candidates = null;
+		}
+		
+		if (pools != null)
+		{
+			for (Pool<Asteroid> pool : pools.values())
+			{
+				if (pool != null)
+					pool.dispose();
+			}
+			
+			pools.clear();
+			pools = null;
+		}
 	}
 }
\ No newline at end of file
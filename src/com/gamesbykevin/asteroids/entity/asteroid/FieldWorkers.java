@@ -0,0 +1,307 @@
+package com.gamesbykevin.asteroids.entity.asteroid;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+/**
+ * A fixed group of worker threads that move the asteroids and update their outlines in chunks.<br>
+ * Every slot is calculated on its own, so the result is exactly the same as updating every slot on the game thread.
+ * Collision and spawning stay on the game thread.<br>
+ * One group is shared by every field, it is created the first time a field is large enough to need it
+ * @author GOD
+ */
+public final class FieldWorkers implements Disposable
+{
+	/**
+	 * Do we split the work between threads?
+	 */
+	public static final boolean ENABLED = true;
+
+	/**
+	 * The fewest asteroids before the work is split, smaller fields are quicker to update on the game thread
+	 */
+	public static final int MIN_ASTEROIDS = 512;
+
+	/**
+	 * The different work done to each slot
+	 */
+	public enum Phase
+	{
+		//move and rotate the asteroid
+		Update,
+
+		//copy the state to the asteroid object and update the outline
+		Sync
+	}
+
+	//the workers shared by every field, null until a field is large enough
+	private static FieldWorkers shared;
+
+	//the worker threads, the game thread does the first chunk
+	private final Thread[] workers;
+
+	//used to start the workers and wait for them to finish
+	private final Object lock = new Object();
+
+	//the field and work of the current run
+	private AsteroidField field;
+	private Phase phase;
+	private int count;
+
+	//increased every run so each worker knows there is new work
+	private int generation = 0;
+
+	//the number of workers still working on the current run
+	private int pending = 0;
+
+	//the first exception thrown by a worker during the current run
+	private Exception failure;
+
+	//are the workers running
+	private volatile boolean running = true;
+
+	/**
+	 * Create the workers
+	 * @param threads The number of worker threads
+	 */
+	private FieldWorkers(final int threads)
+	{
+		this.workers = new Thread[threads];
+
+		for (int index = 0; index < workers.length; index++)
+		{
+			//the chunk this worker is responsible for
+			final int chunk = index + 1;
+
+			this.workers[index] = new Thread("FieldWorker" + chunk)
+			{
+				@Override
+				public void run()
+				{
+					work(chunk);
+				}
+			};
+			this.workers[index].setDaemon(true);
+			this.workers[index].start();
+		}
+	}
+
+	/**
+	 * Do the work for every slot in the field.<br>
+	 * If the field is small, or there is only one core, the work is done on this thread
+	 * @param field The field to update
+	 * @param phase The work done to each slot
+	 * @throws Exception if a worker failed to finish its chunk
+	 */
+	public static void run(final AsteroidField field, final Phase phase) throws Exception
+	{
+		//one less worker than the number of cores since the game thread also does a chunk
+		final int threads = Runtime.getRuntime().availableProcessors() - 1;
+
+		if (!ENABLED || threads < 1 || field.getCount() < MIN_ASTEROIDS)
+		{
+			run(field, phase, 0, field.getCount());
+			return;
+		}
+
+		getShared(threads).split(field, phase);
+	}
+
+	/**
+	 * Get the shared workers, they are created the first time
+	 * @param threads The number of worker threads to create
+	 * @return The workers shared by every field
+	 */
+	private static synchronized FieldWorkers getShared(final int threads)
+	{
+		if (shared == null)
+			shared = new FieldWorkers(threads);
+
+		return shared;
+	}
+
+	/**
+	 * Stop the shared workers and wait for them to finish.<br>
+	 * They are created again if another large field is updated
+	 */
+	public static synchronized void shutdown()
+	{
+		if (shared != null)
+		{
+			shared.dispose();
+			shared = null;
+		}
+	}
+
+	/**
+	 * Split the work between the workers and this thread, and wait for every chunk to finish
+	 * @param field The field to update
+	 * @param phase The work done to each slot
+	 * @throws Exception if a worker failed to finish its chunk
+	 */
+	private synchronized void split(final AsteroidField field, final Phase phase) throws Exception
+	{
+		//start the workers
+		synchronized (lock)
+		{
+			this.field = field;
+			this.phase = phase;
+			this.count = field.getCount();
+			this.pending = workers.length;
+			this.failure = null;
+			this.generation++;
+
+			lock.notifyAll();
+		}
+
+		try
+		{
+			//do the first chunk while we wait
+			run(field, phase, getStart(0), getStart(1));
+		}
+		finally
+		{
+			//wait for the workers to finish, even if our chunk failed
+			synchronized (lock)
+			{
+				while (pending > 0)
+				{
+					lock.wait();
+				}
+
+				this.field = null;
+			}
+		}
+
+		//a chunk left unfinished is reported on the game thread
+		if (failure != null)
+			throw new Exception("Asteroid field worker failed", failure);
+	}
+
+	/**
+	 * Do the work for a range of slots
+	 * @param field The field to update
+	 * @param phase The work done to each slot
+	 * @param start The first slot
+	 * @param end The slot after the last one
+	 */
+	private static void run(final AsteroidField field, final Phase phase, final int start, final int end)
+	{
+		switch (phase)
+		{
+			case Update:
+				field.update(start, end);
+				break;
+
+			case Sync:
+				for (int slot = start; slot < end; slot++)
+				{
+					field.sync(slot);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Get the start of the chunk
+	 * @param chunk The chunk, 0 is done by the game thread
+	 * @return The first slot of the chunk, the chunks are as even as possible
+	 */
+	private int getStart(final int chunk)
+	{
+		return (int)(((long)count * chunk) / (workers.length + 1));
+	}
+
+	/**
+	 * The loop of each worker, wait for a run and do the chunk
+	 * @param chunk The chunk of this worker
+	 */
+	private void work(final int chunk)
+	{
+		//the last run this worker finished
+		int finished = 0;
+
+		while (running)
+		{
+			final AsteroidField field;
+			final Phase phase;
+			final int start, end;
+
+			synchronized (lock)
+			{
+				//wait for a new run
+				while (running && generation == finished)
+				{
+					try
+					{
+						lock.wait();
+					}
+					catch (InterruptedException e)
+					{
+						//check if we are still running
+					}
+				}
+
+				if (!running)
+					return;
+
+				finished = generation;
+				field = this.field;
+				phase = this.phase;
+				start = getStart(chunk);
+				end = getStart(chunk + 1);
+			}
+
+			try
+			{
+				run(field, phase, start, end);
+			}
+			catch (Exception e)
+			{
+				//keep the first failure for the game thread
+				synchronized (lock)
+				{
+					if (failure == null)
+						failure = e;
+				}
+			}
+			finally
+			{
+				//let the game thread know this chunk is done
+				synchronized (lock)
+				{
+					pending--;
+
+					if (pending == 0)
+						lock.notifyAll();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		synchronized (lock)
+		{
+			running = false;
+			lock.notifyAll();
+		}
+
+		//wake each worker and wait for it to finish
+		for (int index = 0; index < workers.length; index++)
+		{
+			workers[index].interrupt();
+
+			try
+			{
+				workers[index].join();
+			}
+			catch (InterruptedException e)
+			{
+				//we were asked to stop, let the caller know
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+}
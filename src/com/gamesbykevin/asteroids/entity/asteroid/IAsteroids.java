@@ -3,6 +3,7 @@ package com.gamesbykevin.asteroids.entity.asteroid;
 import java.util.ArrayList;
 
 import com.gamesbykevin.asteroids.common.ICommon;
+import com.gamesbykevin.asteroids.entity.collision.SpatialHash;
 
 public interface IAsteroids extends ICommon
 {
@@ -21,6 +22,25 @@ public interface IAsteroids extends ICommon
 	 */
 	public ArrayList<Asteroid> get();
 	
+	/**
+	 * Get the grid used to find asteroids that could collide with an entity
+	 * @return The grid containing every asteroid in play
+	 */
+	public SpatialHash<Asteroid> getGrid();
+	
+	/**
+	 * Place the asteroid at the location
+	 * @param asteroid The asteroid we want to move
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 */
+	public void setLocation(final Asteroid asteroid, final double x, final double y);
+	
+	/**
+	 * Remove all asteroids
+	 */
+	public void clear();
+	
 	/**
 	 * Spawn 2 smaller children from the specified parent
 	 * @param asteroid The asteroid to spawn children from
@@ -0,0 +1,311 @@
+package com.gamesbykevin.asteroids.entity.collision;
+
+/**
+ * Polygon collision detection using only the outline coordinates.<br>
+ * The polygons can be convex or concave, and nothing is allocated while checking
+ * @author GOD
+ */
+public final class Collision
+{
+	/**
+	 * The index of the x-coordinate in the contact array
+	 */
+	public static final int CONTACT_X = 0;
+
+	/**
+	 * The index of the y-coordinate in the contact array
+	 */
+	public static final int CONTACT_Y = 1;
+
+	/**
+	 * The time of impact returned when the polygons never touch during the move
+	 */
+	public static final float NO_IMPACT = -1f;
+
+	//the point where the last two segments crossed
+	private static float crossX, crossY;
+
+	//how far along the first segment the last two segments crossed (0.0 - 1.0)
+	private static float crossT;
+
+	private Collision()
+	{
+		//static methods only
+	}
+
+	/**
+	 * Do the bounding circles overlap?
+	 * @param x1 Center x-coordinate of the first circle
+	 * @param y1 Center y-coordinate of the first circle
+	 * @param radius1 Radius of the first circle
+	 * @param x2 Center x-coordinate of the second circle
+	 * @param y2 Center y-coordinate of the second circle
+	 * @param radius2 Radius of the second circle
+	 * @return true if the circles overlap, false otherwise
+	 */
+	public static boolean hasCircleCollision(final float x1, final float y1, final float radius1, final float x2, final float y2, final float radius2)
+	{
+		final float dx = x2 - x1;
+		final float dy = y2 - y1;
+		final float distance = radius1 + radius2;
+
+		return ((dx * dx) + (dy * dy) <= distance * distance);
+	}
+
+	/**
+	 * Do the bounding circles touch at any time during the move?<br>
+	 * Both circles are at their final location, and the first moved the relative distance to get there
+	 * @param x1 Final center x-coordinate of the first circle
+	 * @param y1 Final center y-coordinate of the first circle
+	 * @param radius1 Radius of the first circle
+	 * @param moveX How far the first circle moved on the x-axis compared to the second
+	 * @param moveY How far the first circle moved on the y-axis compared to the second
+	 * @param x2 Final center x-coordinate of the second circle
+	 * @param y2 Final center y-coordinate of the second circle
+	 * @param radius2 Radius of the second circle
+	 * @return true if the circles touch at any time during the move, false otherwise
+	 */
+	public static boolean hasSweptCircleCollision(final float x1, final float y1, final float radius1, final float moveX, final float moveY, final float x2, final float y2, final float radius2)
+	{
+		//where the first circle started compared to the second
+		final float startX = x1 - moveX - x2;
+		final float startY = y1 - moveY - y2;
+
+		//find the time during the move where the centers are closest
+		final float length = (moveX * moveX) + (moveY * moveY);
+
+		float t = (length == 0) ? 1 : -((startX * moveX) + (startY * moveY)) / length;
+
+		if (t < 0)
+			t = 0;
+		if (t > 1)
+			t = 1;
+
+		return hasCircleCollision(startX + (t * moveX), startY + (t * moveY), radius1, 0, 0, radius2);
+	}
+
+	/**
+	 * Get the earliest time the moving polygons touch.<br>
+	 * Both polygons are at their final location, and each moved in a straight line to get there during the update.
+	 * We follow each vertex of one polygon along the relative move and find the first edge of the other polygon it crosses,
+	 * so a fast polygon can't skip past a small one between updates
+	 * @param ax x-coordinates of the first polygon at the final location
+	 * @param ay y-coordinates of the first polygon at the final location
+	 * @param aMoveX How far the first polygon moved on the x-axis
+	 * @param aMoveY How far the first polygon moved on the y-axis
+	 * @param bx x-coordinates of the second polygon at the final location
+	 * @param by y-coordinates of the second polygon at the final location
+	 * @param bMoveX How far the second polygon moved on the x-axis
+	 * @param bMoveY How far the second polygon moved on the y-axis
+	 * @param contact If the polygons touch this will contain the first contact (x, y) at the time of impact, may be null
+	 * @return The time of impact between the start (0.0) and the end (1.0) of the move, or NO_IMPACT if they never touch
+	 */
+	public static float getTimeOfImpact(final float[] ax, final float[] ay, final float aMoveX, final float aMoveY, final float[] bx, final float[] by, final float bMoveX, final float bMoveY, final float[] contact)
+	{
+		//the move of the first polygon compared to the second
+		final float moveX = aMoveX - bMoveX;
+		final float moveY = aMoveY - bMoveY;
+
+		//if there was no relative move, only the final location matters
+		if (moveX == 0 && moveY == 0)
+			return hasCollision(ax, ay, bx, by, contact) ? 1 : NO_IMPACT;
+
+		//if a vertex started inside the other polygon, they were already touching
+		for (int i = 0; i < ax.length; i++)
+		{
+			if (contains(bx, by, ax[i] - moveX, ay[i] - moveY))
+				return setContact(contact, ax[i] - aMoveX, ay[i] - aMoveY, 0);
+		}
+
+		for (int k = 0; k < bx.length; k++)
+		{
+			if (contains(ax, ay, bx[k] + moveX, by[k] + moveY))
+				return setContact(contact, bx[k] - bMoveX, by[k] - bMoveY, 0);
+		}
+
+		//the earliest time found, and the contact at that time
+		float earliest = NO_IMPACT, earliestX = 0, earliestY = 0;
+
+		//follow each vertex of the first polygon, the second polygon stays still
+		for (int i = 0; i < ax.length; i++)
+		{
+			for (int k = 0, l = bx.length - 1; k < bx.length; l = k++)
+			{
+				if (hasCrossing(ax[i] - moveX, ay[i] - moveY, ax[i], ay[i], bx[l], by[l], bx[k], by[k]) && (earliest == NO_IMPACT || crossT < earliest))
+				{
+					//move the contact to where the second polygon was at that time
+					earliest = crossT;
+					earliestX = crossX + ((crossT - 1) * bMoveX);
+					earliestY = crossY + ((crossT - 1) * bMoveY);
+				}
+			}
+		}
+
+		//follow each vertex of the second polygon, the first polygon stays still
+		for (int k = 0; k < bx.length; k++)
+		{
+			for (int i = 0, j = ax.length - 1; i < ax.length; j = i++)
+			{
+				if (hasCrossing(bx[k] + moveX, by[k] + moveY, bx[k], by[k], ax[j], ay[j], ax[i], ay[i]) && (earliest == NO_IMPACT || crossT < earliest))
+				{
+					//move the contact to where the first polygon was at that time
+					earliest = crossT;
+					earliestX = crossX + ((crossT - 1) * aMoveX);
+					earliestY = crossY + ((crossT - 1) * aMoveY);
+				}
+			}
+		}
+
+		if (earliest != NO_IMPACT)
+			return setContact(contact, earliestX, earliestY, earliest);
+
+		//edges can still cross at the end without a vertex inside, such as a thin laser across an asteroid
+		return hasCollision(ax, ay, bx, by, contact) ? 1 : NO_IMPACT;
+	}
+
+	/**
+	 * Store the contact
+	 * @param contact Where the contact is stored, may be null
+	 * @param x x-coordinate of the contact
+	 * @param y y-coordinate of the contact
+	 * @param time The time of impact
+	 * @return The time of impact
+	 */
+	private static float setContact(final float[] contact, final float x, final float y, final float time)
+	{
+		if (contact != null)
+		{
+			contact[CONTACT_X] = x;
+			contact[CONTACT_Y] = y;
+		}
+
+		return time;
+	}
+
+	/**
+	 * Do the polygons intersect?<br>
+	 * The polygons intersect if any of their edges cross, or if one is completely inside the other
+	 * @param ax x-coordinates of the first polygon
+	 * @param ay y-coordinates of the first polygon
+	 * @param bx x-coordinates of the second polygon
+	 * @param by y-coordinates of the second polygon
+	 * @param contact If the polygons intersect this will contain the center of the contact (x, y), may be null
+	 * @return true if the polygons intersect, false otherwise
+	 */
+	public static boolean hasCollision(final float[] ax, final float[] ay, final float[] bx, final float[] by, final float[] contact)
+	{
+		//the sum of the contact points and how many were found
+		float sumX = 0, sumY = 0;
+		int count = 0;
+
+		//check every edge of the first polygon against every edge of the second
+		for (int i = 0, j = ax.length - 1; i < ax.length; j = i++)
+		{
+			for (int k = 0, l = bx.length - 1; k < bx.length; l = k++)
+			{
+				if (hasCrossing(ax[j], ay[j], ax[i], ay[i], bx[l], by[l], bx[k], by[k]))
+				{
+					//if we don't need the contact, we are done
+					if (contact == null)
+						return true;
+
+					sumX += crossX;
+					sumY += crossY;
+					count++;
+				}
+			}
+		}
+
+		//any vertices inside the other polygon are also part of the contact
+		for (int i = 0; i < ax.length; i++)
+		{
+			if (contains(bx, by, ax[i], ay[i]))
+			{
+				if (contact == null)
+					return true;
+
+				sumX += ax[i];
+				sumY += ay[i];
+				count++;
+			}
+		}
+
+		for (int i = 0; i < bx.length; i++)
+		{
+			if (contains(ax, ay, bx[i], by[i]))
+			{
+				if (contact == null)
+					return true;
+
+				sumX += bx[i];
+				sumY += by[i];
+				count++;
+			}
+		}
+
+		//if nothing was found there is no collision
+		if (count == 0)
+			return false;
+
+		//the contact is the center of all the points found
+		contact[CONTACT_X] = sumX / count;
+		contact[CONTACT_Y] = sumY / count;
+
+		return true;
+	}
+
+	/**
+	 * Is the point inside the polygon?<br>
+	 * We count how many edges a horizontal line from the point crosses, an odd number means we are inside
+	 * @param px x-coordinates of the polygon
+	 * @param py y-coordinates of the polygon
+	 * @param x x-coordinate of the point
+	 * @param y y-coordinate of the point
+	 * @return true if the point is inside, false otherwise
+	 */
+	public static boolean contains(final float[] px, final float[] py, final float x, final float y)
+	{
+		boolean inside = false;
+
+		for (int i = 0, j = px.length - 1; i < px.length; j = i++)
+		{
+			if ((py[i] > y) != (py[j] > y) && x < (px[j] - px[i]) * (y - py[i]) / (py[j] - py[i]) + px[i])
+				inside = !inside;
+		}
+
+		return inside;
+	}
+
+	/**
+	 * Do the two line segments cross?<br>
+	 * If they do, the crossing point is stored for the caller
+	 * @return true if the segments (x1, y1)-(x2, y2) and (x3, y3)-(x4, y4) cross, false otherwise
+	 */
+	private static boolean hasCrossing(final float x1, final float y1, final float x2, final float y2, final float x3, final float y3, final float x4, final float y4)
+	{
+		final float d1x = x2 - x1;
+		final float d1y = y2 - y1;
+		final float d2x = x4 - x3;
+		final float d2y = y4 - y3;
+
+		final float denominator = (d1x * d2y) - (d1y * d2x);
+
+		//parallel segments won't cross, if they overlap the vertex checks will find it
+		if (denominator == 0)
+			return false;
+
+		//how far along each segment the lines meet
+		final float t = (((x3 - x1) * d2y) - ((y3 - y1) * d2x)) / denominator;
+		final float u = (((x3 - x1) * d1y) - ((y3 - y1) * d1x)) / denominator;
+
+		if (t < 0 || t > 1 || u < 0 || u > 1)
+			return false;
+
+		//store the crossing point
+		crossT = t;
+		crossX = x1 + (t * d1x);
+		crossY = y1 + (t * d1y);
+
+		return true;
+	}
+}
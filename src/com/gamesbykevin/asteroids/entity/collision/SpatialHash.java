@@ -0,0 +1,416 @@
+package com.gamesbykevin.asteroids.entity.collision;
+
+import java.util.ArrayList;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.geometry.Wrap;
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+/**
+ * A uniform grid over the play field used to find the entities that are close enough to collide.<br>
+ * Each entity is placed in every cell its bounds overlap, so only entities sharing a cell need the expensive collision check.
+ * The grid wraps around the same way the play field does, so an entity crossing an edge is also placed in the cells on the opposite edge
+ * @author GOD
+ * @param <T> The type of entity stored
+ */
+public class SpatialHash<T extends Entity> implements Disposable
+{
+	/**
+	 * The size of each cell (pixels)
+	 */
+	public static final int CELL_SIZE = 80;
+
+	/**
+	 * The default number of slots to allocate
+	 */
+	private static final int DEFAULT_CAPACITY = 32;
+
+	//the number of columns and rows in the grid
+	private final int cols, rows;
+
+	//the entities in the grid, the index is the slot stored in the cells
+	private ArrayList<T> members;
+
+	//the range of cells each member currently occupies
+	private int[] col1, row1, col2, row2;
+
+	//the slots in each cell, and how many are in each
+	private int[][] cells;
+	private int[] counts;
+
+	//used so a member in several cells is only returned once per query
+	private int[] stamps;
+	private int stamp = 0;
+
+	//the range of cells calculated for an entity
+	private int rangeCol1, rangeRow1, rangeCol2, rangeRow2;
+
+	public SpatialHash()
+	{
+		//determine the size of the grid, rounding up, the cell size divides the screen evenly so the wrapped cells line up
+		this.cols = (GamePanel.WIDTH + CELL_SIZE - 1) / CELL_SIZE;
+		this.rows = (GamePanel.HEIGHT + CELL_SIZE - 1) / CELL_SIZE;
+
+		//create our list of members
+		this.members = new ArrayList<T>(DEFAULT_CAPACITY);
+
+		//create the member slots
+		this.col1 = new int[DEFAULT_CAPACITY];
+		this.row1 = new int[DEFAULT_CAPACITY];
+		this.col2 = new int[DEFAULT_CAPACITY];
+		this.row2 = new int[DEFAULT_CAPACITY];
+		this.stamps = new int[DEFAULT_CAPACITY];
+
+		//create the cells
+		this.cells = new int[cols * rows][DEFAULT_CAPACITY];
+		this.counts = new int[cols * rows];
+	}
+
+	/**
+	 * Add the entity to the grid
+	 * @param entity The entity we want to check for collision
+	 */
+	public void add(final T entity)
+	{
+		//the slot for this entity
+		final int slot = members.size();
+
+		//add to the list
+		members.add(entity);
+
+		//make sure we have room
+		if (slot >= col1.length)
+		{
+			col1 = grow(col1);
+			row1 = grow(row1);
+			col2 = grow(col2);
+			row2 = grow(row2);
+			stamps = grow(stamps);
+		}
+
+		//figure out the cells it covers and insert
+		calculateRange(entity);
+		storeRange(slot);
+		insert(slot);
+	}
+
+	/**
+	 * Update the grid.<br>
+	 * Dead entities are removed, and an entity is only moved if the cells it covers have changed
+	 */
+	public void update()
+	{
+		for (int slot = 0; slot < members.size(); slot++)
+		{
+			final T entity = members.get(slot);
+
+			//if the entity is dead it no longer belongs in the grid
+			if (entity.isDead())
+			{
+				removeSlot(slot);
+
+				//check the member that was moved into this slot
+				slot--;
+				continue;
+			}
+
+			//determine where the entity is now
+			calculateRange(entity);
+
+			//if the entity is still in the same cells, there is nothing to do
+			if (rangeCol1 == col1[slot] && rangeRow1 == row1[slot] && rangeCol2 == col2[slot] && rangeRow2 == row2[slot])
+				continue;
+
+			//move the entity to the new cells
+			erase(slot);
+			storeRange(slot);
+			insert(slot);
+		}
+	}
+
+	/**
+	 * Get the entities that could collide with the specified entity
+	 * @param entity The entity we are checking
+	 * @param result List that will be cleared and then populated with each entity sharing a cell, never including the specified entity
+	 * @return The same list that was passed as a parameter
+	 */
+	public ArrayList<T> query(final Entity entity, final ArrayList<T> result)
+	{
+		return query(entity, 0, 0, result);
+	}
+
+	/**
+	 * Get the entities that could collide with the specified entity anywhere along its last move
+	 * @param entity The entity we are checking, at its final location
+	 * @param moveX How far the entity moved on the x-axis to get to the final location
+	 * @param moveY How far the entity moved on the y-axis to get to the final location
+	 * @param result List that will be cleared and then populated with each entity sharing a cell, never including the specified entity
+	 * @return The same list that was passed as a parameter
+	 */
+	public ArrayList<T> query(final Entity entity, final double moveX, final double moveY, final ArrayList<T> result)
+	{
+		//remove any previous results
+		result.clear();
+
+		//determine which cells the entity covers
+		calculateRange(entity);
+
+		//include the cells covered where the entity started
+		final double x = entity.getX() + (entity.getWidth() / 2) - moveX;
+		final double y = entity.getY() + (entity.getHeight() / 2) - moveY;
+		final double radius = getRadius(entity);
+
+		rangeCol1 = Math.min(rangeCol1, getCol(x - radius));
+		rangeRow1 = Math.min(rangeRow1, getRow(y - radius));
+		rangeCol2 = Math.max(rangeCol2, getCol(x + radius));
+		rangeRow2 = Math.max(rangeRow2, getRow(y + radius));
+		limitRange();
+
+		//start a new query
+		stamp++;
+
+		for (int row = rangeRow1; row <= rangeRow2; row++)
+		{
+			for (int col = rangeCol1; col <= rangeCol2; col++)
+			{
+				final int cell = getCell(row, col);
+
+				for (int index = 0; index < counts[cell]; index++)
+				{
+					final int slot = cells[cell][index];
+
+					//if we already returned this member, skip it
+					if (stamps[slot] == stamp)
+						continue;
+
+					stamps[slot] = stamp;
+
+					//don't return the entity we are checking
+					if (members.get(slot) != entity)
+						result.add(members.get(slot));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Remove all entities from the grid
+	 */
+	public void clear()
+	{
+		members.clear();
+
+		for (int cell = 0; cell < counts.length; cell++)
+		{
+			counts[cell] = 0;
+		}
+	}
+
+	/**
+	 * Get the number of entities in the grid
+	 * @return The total number of entities
+	 */
+	public int getSize()
+	{
+		return members.size();
+	}
+
+	/**
+	 * Calculate the range of cells the entity covers.<br>
+	 * Since entities rotate we will use the half diagonal from the center so the range covers every rotation
+	 * @param entity The entity we are checking
+	 */
+	private void calculateRange(final Entity entity)
+	{
+		//the distance from the center to a corner
+		final double radius = getRadius(entity);
+
+		//the center of the entity
+		final double x = entity.getX() + (entity.getWidth() / 2);
+		final double y = entity.getY() + (entity.getHeight() / 2);
+
+		rangeCol1 = getCol(x - radius);
+		rangeRow1 = getRow(y - radius);
+		rangeCol2 = getCol(x + radius);
+		rangeRow2 = getRow(y + radius);
+		limitRange();
+	}
+
+	/**
+	 * Make sure the calculated range doesn't cover the same cell twice once wrapped
+	 */
+	private void limitRange()
+	{
+		if (rangeCol2 - rangeCol1 >= cols)
+			rangeCol2 = rangeCol1 + cols - 1;
+		if (rangeRow2 - rangeRow1 >= rows)
+			rangeRow2 = rangeRow1 + rows - 1;
+	}
+
+	/**
+	 * Get the cell
+	 * @param row The row, may be outside of the grid
+	 * @param col The column, may be outside of the grid
+	 * @return The index of the cell, wrapped around to the opposite edge of the grid if needed
+	 */
+	private int getCell(final int row, final int col)
+	{
+		return (Wrap.wrap(row, rows) * cols) + Wrap.wrap(col, cols);
+	}
+
+	/**
+	 * Get the radius used for the range of cells
+	 * @param entity The entity we are checking
+	 * @return The distance from the center to a corner, so the range covers every rotation
+	 */
+	private static double getRadius(final Entity entity)
+	{
+		return Math.sqrt((entity.getWidth() * entity.getWidth()) + (entity.getHeight() * entity.getHeight())) / 2;
+	}
+
+	/**
+	 * Get the column
+	 * @param x x-coordinate
+	 * @return The column in the grid, anything off the screen is outside the grid and wraps around when used
+	 */
+	private int getCol(final double x)
+	{
+		return (int)Math.floor(x / CELL_SIZE);
+	}
+
+	/**
+	 * Get the row
+	 * @param y y-coordinate
+	 * @return The row in the grid, anything off the screen is outside the grid and wraps around when used
+	 */
+	private int getRow(final double y)
+	{
+		return (int)Math.floor(y / CELL_SIZE);
+	}
+
+	/**
+	 * Store the last calculated range for the slot
+	 * @param slot The slot of the member
+	 */
+	private void storeRange(final int slot)
+	{
+		col1[slot] = rangeCol1;
+		row1[slot] = rangeRow1;
+		col2[slot] = rangeCol2;
+		row2[slot] = rangeRow2;
+	}
+
+	/**
+	 * Add the slot to each cell in its stored range
+	 * @param slot The slot of the member
+	 */
+	private void insert(final int slot)
+	{
+		for (int row = row1[slot]; row <= row2[slot]; row++)
+		{
+			for (int col = col1[slot]; col <= col2[slot]; col++)
+			{
+				final int cell = getCell(row, col);
+
+				//make sure the cell has room
+				if (counts[cell] >= cells[cell].length)
+					cells[cell] = grow(cells[cell]);
+
+				cells[cell][counts[cell]] = slot;
+				counts[cell]++;
+			}
+		}
+	}
+
+	/**
+	 * Remove the slot from each cell in its stored range
+	 * @param slot The slot of the member
+	 */
+	private void erase(final int slot)
+	{
+		for (int row = row1[slot]; row <= row2[slot]; row++)
+		{
+			for (int col = col1[slot]; col <= col2[slot]; col++)
+			{
+				final int cell = getCell(row, col);
+
+				for (int index = 0; index < counts[cell]; index++)
+				{
+					if (cells[cell][index] == slot)
+					{
+						//move the last slot here, order doesn't matter
+						counts[cell]--;
+						cells[cell][index] = cells[cell][counts[cell]];
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the member at the slot, the last member will be moved into this slot
+	 * @param slot The slot of the member
+	 */
+	private void removeSlot(final int slot)
+	{
+		//remove from the cells
+		erase(slot);
+
+		final int last = members.size() - 1;
+
+		//if this isn't the last slot, move the last member here
+		if (slot != last)
+		{
+			//remove the last member from its cells
+			erase(last);
+
+			//move the member
+			members.set(slot, members.get(last));
+			col1[slot] = col1[last];
+			row1[slot] = row1[last];
+			col2[slot] = col2[last];
+			row2[slot] = row2[last];
+			stamps[slot] = stamps[last];
+
+			//add back with the new slot
+			insert(slot);
+		}
+
+		//remove the last slot
+		members.remove(last);
+	}
+
+	/**
+	 * Double the size of the array
+	 * @param array The array to grow
+	 * @return A new array with the existing values copied
+	 */
+	private static int[] grow(final int[] array)
+	{
+		final int[] tmp = new int[array.length * 2];
+		System.arraycopy(array, 0, tmp, 0, array.length);
+		return tmp;
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (members != null)
+		{
+			members.clear();
+			members = null;
+		}
+
+		col1 = null;
+		row1 = null;
+		col2 = null;
+		row2 = null;
+		stamps = null;
+		cells = null;
+		counts = null;
+	}
+}
@@ -1,105 +1,213 @@
 package com.gamesbykevin.asteroids.entity.effect;
 
-import java.util.ArrayList;
-
-import com.gamesbykevin.androidframework.resources.Audio;
-import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Rng;
 import com.gamesbykevin.asteroids.entity.Entity;
-import com.gamesbykevin.asteroids.panel.GamePanel;
+import com.gamesbykevin.asteroids.game.Game;
 
 import android.graphics.Canvas;
 
+/**
+ * The effects in play are kept in a ring created ahead of time.<br>
+ * New effects are added after the newest, and dead effects are retired from the oldest, so nothing is allocated or shifted during game play
+ * @author GOD
+ */
 public class Effects implements IEffects
 {
-	//list of effects
-	private ArrayList<Effect> effects;
+	//our game reference
+	private final Game game;
+	
+	/**
+	 * The number of effects in the ring, if every effect in the ring is alive the oldest effect is replaced
+	 */
+	private static final int CAPACITY = 32;
+	
+	//the effects, every slot is created ahead of time
+	private Explosion[] ring;
+	
+	//the index of the oldest effect, and the number of effects between the oldest and newest
+	private int head = 0, size = 0;
 	
-	public Effects() 
+	//the debris and exhaust
+	private Particles particles;
+	
+	public Effects(final Game game) 
 	{
-		//create new list of effects
-		this.effects = new ArrayList<Effect>();
+		//store our game reference
+		this.game = game;
+		
+		//create every effect now
+		this.ring = new Explosion[CAPACITY];
+		
+		for (int index = 0; index < ring.length; index++)
+		{
+			this.ring[index] = new Explosion();
+			this.ring[index].setDead(true);
+		}
+		
+		//create the particles
+		this.particles = new Particles(game.getRandom(Rng.Stream.Particles));
 	}
-
+	
+	/**
+	 * Get the particles
+	 * @return The debris and exhaust
+	 */
+	public Particles getParticles()
+	{
+		return this.particles;
+	}
+	
+	/**
+	 * Get the effect
+	 * @param index The position in the ring, 0 is the oldest
+	 * @return The effect
+	 */
+	private Explosion get(final int index)
+	{
+		return ring[(head + index) % ring.length];
+	}
+	
 	@Override
-	public ArrayList<Effect> get() 
+	public void clear()
 	{
-		return this.effects;
+		for (int index = 0; index < ring.length; index++)
+		{
+			ring[index].setDead(true);
+		}
+		
+		head = 0;
+		size = 0;
+		
+		getParticles().clear();
 	}
 	
-
 	@Override
-	public void add(Entity entity) 
+	public int getCount()
 	{
-		//add to the list
-		get().add(new Explosion(entity));
+		int count = 0;
 		
-		//play sound effect
-		switch (GamePanel.RANDOM.nextInt(3))
+		for (int index = 0; index < size; index++)
 		{
-			case 0:
-			default:
-				Audio.play(Assets.AudioGameKey.Explosion1);
-				break;
-				
-			case 1:
-				Audio.play(Assets.AudioGameKey.Explosion2);
-				break;
-				
-			case 2:
-				Audio.play(Assets.AudioGameKey.Explosion3);
-				break;
+			if (!get(index).isDead())
+				count++;
 		}
+		
+		return count;
+	}
+	
+	@Override
+	public void add(Entity entity) throws Exception
+	{
+		//if the ring is full, reuse the slots of effects that finished early
+		if (size == ring.length)
+			compact();
+		
+		//if every effect is still alive, replace the oldest effect
+		if (size == ring.length)
+		{
+			head = (head + 1) % ring.length;
+			size--;
+		}
+		
+		//the slot after the newest effect
+		final Explosion explosion = get(size);
+		size++;
+		
+		//place at the entity
+		explosion.reset(entity, game.getRandom(Rng.Stream.Effects));
+		
+		//add the debris
+		getParticles().debris(entity);
+		
+		//report the explosion
+		game.getEvents().onExplosion(entity);
+	}
+	
+	/**
+	 * Move the live effects together after the oldest, so the dead effects between them can be reused.<br>
+	 * The effects are swapped within the ring, so the order is kept and nothing is allocated
+	 */
+	private void compact()
+	{
+		//the number of live effects found so far
+		int live = 0;
+		
+		for (int index = 0; index < size; index++)
+		{
+			final Explosion explosion = get(index);
+			
+			if (explosion.isDead())
+				continue;
+			
+			//swap with the first dead effect
+			final int from = (head + index) % ring.length;
+			final int to = (head + live) % ring.length;
+			
+			ring[from] = ring[to];
+			ring[to] = explosion;
+			live++;
+		}
+		
+		size = live;
 	}
 	
 	@Override
 	public void update() throws Exception 
 	{
-		for (int index = 0; index < effects.size(); index++)
+		//update every effect still alive exactly once
+		for (int index = 0; index < size; index++)
 		{
-			//get the current effect
-			final Effect effect = get().get(index);
+			final Explosion explosion = get(index);
 			
-			if (!effect.isDead())
-			{
-				effect.update();
-			}
-			else
-			{
-				//remove the current effect
-				effects.remove(index);
-				
-				//move the index back
-				index--;
-			}
+			if (!explosion.isDead())
+				explosion.update();
+		}
+		
+		//retire the dead effects from the oldest, an effect that finished early waits until it is the oldest
+		while (size > 0 && get(0).isDead())
+		{
+			head = (head + 1) % ring.length;
+			size--;
 		}
+		
+		//move the particles
+		getParticles().update();
 	}
-
+	
 	@Override
 	public void render(Canvas canvas) throws Exception 
 	{
-		//render all the effects
-		for (Effect effect : get())
+		//render the particles under the explosions
+		getParticles().render(canvas);
+		
+		//render all the effects, the dead are skipped
+		for (int index = 0; index < size; index++)
 		{
-			effect.render(canvas);
+			get(index).render(canvas);
 		}
 	}
 	
 	@Override
 	public void dispose() 
 	{
-		if (effects != null)
+		if (ring != null)
 		{
-			for (int index = 0; index < effects.size(); index++)
+			for (int index = 0; index < ring.length; index++)
 			{
-				if (effects.get(index) != null)
+				if (ring[index] != null)
 				{
-					effects.get(index).dispose();
-					effects.set(index, null);
+					ring[index].dispose();
+					ring[index] = null;
 				}
 			}
 			
-			effects.clear();
-			effects = null;
+			ring = null;
+		}
+		
+		if (particles != null)
+		{
+			particles.dispose();
+			particles = null;
 		}
 	}
-}
\ No newline at end of file
+}
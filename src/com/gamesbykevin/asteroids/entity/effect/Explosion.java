@@ -1,55 +1,70 @@
 package com.gamesbykevin.asteroids.entity.effect;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Rng;
 import com.gamesbykevin.asteroids.entity.Entity;
-import com.gamesbykevin.asteroids.panel.GamePanel;
+import com.gamesbykevin.asteroids.entity.animation.AnimationTemplate;
 
 public final class Explosion extends Effect 
 {
 	/**
-	 * The default key for this animation
+	 * The different explosion animations
 	 */
-	private static final String DEFAULT_KEY = "Default";
+	private enum Key
+	{
+		Large, Medium, Small
+	}
+	
+	//every explosion animation, the random index picks one
+	private static final Key[] KEYS = Key.values();
 	
 	/**
 	 * The default time delay for each frame
 	 */
 	private static final long DEFAULT_DELAY = 100L;
 	
-	protected Explosion(final Entity entity)
+	protected Explosion()
 	{
 		super();
-		
-		//our animation object
-		Animation animation;
-		
-		//pick a random animation
-		switch (GamePanel.RANDOM.nextInt(3))
+	}
+	
+	/**
+	 * Get the shared explosion animation
+	 * @param key The explosion animation we want
+	 * @return The animation template, which doesn't loop
+	 */
+	private static AnimationTemplate getTemplate(final Key key)
+	{
+		switch (key)
 		{
-			case 0:
-				animation = new Animation(Images.getImage(Assets.ImageGameKey.Explosion), 0, 0, 190, 190, 13, 1, 13);
-				break;
-				
-			case 1:
-				animation = new Animation(Images.getImage(Assets.ImageGameKey.Explosion), 0, 190, 140, 140, 9, 1, 9);
-				break;
-			
-			case 2:
+			case Large:
 			default:
-				animation = new Animation(Images.getImage(Assets.ImageGameKey.Explosion), 0, 330, 96, 96, 12, 1, 12);
-				break;
+				return AnimationTemplate.get(key, Images.getImage(Assets.ImageGameKey.Explosion), 0, 0, 190, 190, 13, 13, DEFAULT_DELAY, false);
+				
+			case Medium:
+				return AnimationTemplate.get(key, Images.getImage(Assets.ImageGameKey.Explosion), 0, 190, 140, 140, 9, 9, DEFAULT_DELAY, false);
+				
+			case Small:
+				return AnimationTemplate.get(key, Images.getImage(Assets.ImageGameKey.Explosion), 0, 330, 96, 96, 12, 12, DEFAULT_DELAY, false);
 		}
+	}
+	
+	/**
+	 * Reset the explosion so it can be displayed again
+	 * @param entity The entity where the explosion will be placed
+	 * @param random The random number generator used to pick the animation
+	 */
+	protected void reset(final Entity entity, final Rng random)
+	{
+		//the explosion is alive again
+		super.setDead(false);
 		
-		//we don't want this to loop
-		animation.setLoop(false);
-		
-		//set the delay for each frame
-		animation.setDelay(DEFAULT_DELAY);
+		//pick a random animation
+		getAnimation().setTemplate(getTemplate(KEYS[random.nextInt(KEYS.length)]));
 		
-		//add animation to sprite sheet
-		super.getSpritesheet().add(DEFAULT_KEY, animation);
+		//start the animation from the beginning
+		getAnimation().reset();
 		
 		//place at the specified entity
 		setX(entity);
@@ -72,11 +87,11 @@ public final class Explosion extends Effect
 	public void update() throws Exception 
 	{
 		//if the animation has finished, flag this explosion as dead
-		if (getSpritesheet().get().hasFinished())
+		if (getAnimation().hasFinished())
 			super.setDead(true);
 		
-		//update the sprite sheet
-		super.getSpritesheet().update();
+		//update the animation
+		getAnimation().update();
 		
 	}
 }
\ No newline at end of file
@@ -1,21 +1,24 @@
 package com.gamesbykevin.asteroids.entity.effect;
 
-import java.util.ArrayList;
-
 import com.gamesbykevin.asteroids.common.ICommon;
 import com.gamesbykevin.asteroids.entity.Entity;
 
 public interface IEffects extends ICommon
 {
 	/**
-	 * Get the list
-	 * @return The list of current effects
+	 * Get the number of effects
+	 * @return The number of effects still playing
 	 */
-	public ArrayList<Effect> get();
+	public int getCount();
 	
 	/**
 	 * Add an effect
 	 * @param entity The entity were we want to add the entity
 	 */
-	public void add(final Entity entity);
+	public void add(final Entity entity) throws Exception;
+	
+	/**
+	 * Remove all effects
+	 */
+	public void clear();
 }
@@ -0,0 +1,344 @@
+package com.gamesbykevin.asteroids.entity.effect;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.asteroids.common.Rng;
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.geometry.Trig;
+import com.gamesbykevin.asteroids.entity.geometry.Wrap;
+import com.gamesbykevin.asteroids.entity.ship.Ship;
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Small points of light for the debris of an explosion and the exhaust of a thrusting ship.<br>
+ * The state of every particle is stored in parallel arrays with a fixed capacity, and the particles are drawn in one batch per color,
+ * so thousands of particles cost less than a single explosion entity
+ * @author GOD
+ */
+public final class Particles implements Disposable
+{
+	/**
+	 * The most particles alive at once, new particles are ignored once full
+	 */
+	public static final int CAPACITY = 2048;
+	
+	/**
+	 * The number of particles in the debris of each explosion
+	 */
+	public static final int DEBRIS = 24;
+	
+	/**
+	 * The number of particles in the exhaust of a thrusting ship each update
+	 */
+	public static final int EXHAUST = 2;
+	
+	/**
+	 * The number of updates debris is displayed
+	 */
+	private static final int DEBRIS_LIFE = 30;
+	
+	/**
+	 * The number of updates exhaust is displayed
+	 */
+	private static final int EXHAUST_LIFE = 8;
+	
+	/**
+	 * The fastest speed of the debris
+	 */
+	private static final float DEBRIS_SPEED = 4f;
+	
+	/**
+	 * The speed of the exhaust away from the ship
+	 */
+	private static final float EXHAUST_SPEED = 3f;
+	
+	/**
+	 * The exhaust leaves within this many degrees either side of straight back
+	 */
+	private static final float EXHAUST_SPREAD = 20f;
+	
+	/**
+	 * The velocity kept after each update
+	 */
+	private static final float DRAG = 0.95f;
+	
+	/**
+	 * The size of each particle (pixels)
+	 */
+	private static final float SIZE = 3f;
+	
+	//the colors of the particles (red, green, blue)
+	private static final int[][] PALETTE = new int[][]
+	{
+		{255, 180, 60},
+		{255, 240, 150},
+		{255, 255, 255},
+		{120, 180, 255},
+	};
+	
+	//the colors used by the debris and the exhaust
+	private static final int COLOR_DEBRIS = 0, COLOR_DEBRIS_COUNT = 3, COLOR_EXHAUST = 3;
+	
+	/**
+	 * The number of steps a particle fades through before it is gone
+	 */
+	private static final int FADE_LEVELS = 4;
+	
+	//the color drawn for each batch, the index is (color * FADE_LEVELS) + level
+	private static final int[] BATCH_COLORS = new int[PALETTE.length * FADE_LEVELS];
+	
+	static
+	{
+		for (int color = 0; color < PALETTE.length; color++)
+		{
+			for (int level = 0; level < FADE_LEVELS; level++)
+			{
+				//the same value as Color.argb(), calculated here so the class can be loaded without the device
+				final int alpha = (255 * (level + 1)) / FADE_LEVELS;
+				
+				BATCH_COLORS[(color * FADE_LEVELS) + level] = (alpha << 24) | (PALETTE[color][0] << 16) | (PALETTE[color][1] << 8) | PALETTE[color][2];
+			}
+		}
+	}
+	
+	//the location and velocity of each particle
+	private final float[] x, y, dx, dy;
+	
+	//the updates remaining, and the updates the particle started with
+	private final int[] life, duration;
+	
+	//the color of each particle
+	private final byte[] color;
+	
+	//the number of particles alive
+	private int count = 0;
+	
+	//the coordinates of each point drawn, grouped by batch
+	private final float[] points;
+	
+	//the number of particles in each batch, and where each batch starts
+	private final int[] batchCount, batchStart;
+	
+	//the random number generator used for the direction and color
+	private final Rng random;
+	
+	//how we draw the particles, created when first rendered
+	private Paint paint;
+	
+	/**
+	 * Create the particles
+	 * @param random The random number generator used for the direction and color
+	 */
+	public Particles(final Rng random)
+	{
+		this.random = random;
+		
+		this.x = new float[CAPACITY];
+		this.y = new float[CAPACITY];
+		this.dx = new float[CAPACITY];
+		this.dy = new float[CAPACITY];
+		this.life = new int[CAPACITY];
+		this.duration = new int[CAPACITY];
+		this.color = new byte[CAPACITY];
+		
+		this.points = new float[CAPACITY * 2];
+		this.batchCount = new int[BATCH_COLORS.length];
+		this.batchStart = new int[BATCH_COLORS.length];
+	}
+	
+	/**
+	 * Add the debris of an explosion
+	 * @param entity The entity exploding, the debris starts at the center
+	 */
+	public void debris(final Entity entity)
+	{
+		final float centerX = (float)(entity.getX() + (entity.getWidth() / 2));
+		final float centerY = (float)(entity.getY() + (entity.getHeight() / 2));
+		
+		for (int index = 0; index < DEBRIS; index++)
+		{
+			//fly out in a random direction at a random speed
+			final float angle = random.nextFloat() * Entity.ROTATION_MAX;
+			final float speed = DEBRIS_SPEED * (0.25f + (0.75f * random.nextFloat()));
+			
+			add(centerX, centerY, Trig.cos(angle) * speed, Trig.sin(angle) * speed, DEBRIS_LIFE, COLOR_DEBRIS + random.nextInt(COLOR_DEBRIS_COUNT));
+		}
+	}
+	
+	/**
+	 * Add the exhaust of a thrusting ship for this update
+	 * @param ship The ship, the exhaust leaves the back of the ship
+	 */
+	public void exhaust(final Ship ship)
+	{
+		//the back of the ship
+		final float backX = (float)(ship.getX() + (ship.getWidth() / 2)) - (Trig.cos(ship.getRotation()) * (float)(ship.getHeight() / 2));
+		final float backY = (float)(ship.getY() + (ship.getHeight() / 2)) - (Trig.sin(ship.getRotation()) * (float)(ship.getHeight() / 2));
+		
+		for (int index = 0; index < EXHAUST; index++)
+		{
+			//leave straight back from the ship, give or take the spread
+			final float angle = ship.getRotation() + (Entity.ROTATION_MAX / 2) + (EXHAUST_SPREAD * ((2 * random.nextFloat()) - 1));
+			
+			add(backX, backY, (float)ship.getDX() + (Trig.cos(angle) * EXHAUST_SPEED), (float)ship.getDY() + (Trig.sin(angle) * EXHAUST_SPEED), EXHAUST_LIFE, COLOR_EXHAUST);
+		}
+	}
+	
+	/**
+	 * Add a particle, nothing is added if we are full
+	 * @param x Starting x-coordinate
+	 * @param y Starting y-coordinate
+	 * @param dx The velocity on the x-axis
+	 * @param dy The velocity on the y-axis
+	 * @param life The number of updates the particle is displayed
+	 * @param color The index of the color in the palette
+	 */
+	private void add(final float x, final float y, final float dx, final float dy, final int life, final int color)
+	{
+		if (count >= CAPACITY)
+			return;
+		
+		this.x[count] = x;
+		this.y[count] = y;
+		this.dx[count] = dx;
+		this.dy[count] = dy;
+		this.life[count] = life;
+		this.duration[count] = life;
+		this.color[count] = (byte)color;
+		count++;
+	}
+	
+	/**
+	 * Move every particle and remove the particles that are gone
+	 */
+	public void update()
+	{
+		for (int index = 0; index < count; index++)
+		{
+			life[index]--;
+			
+			//if the particle is gone, move the last particle here and check it
+			if (life[index] <= 0)
+			{
+				count--;
+				
+				x[index] = x[count];
+				y[index] = y[count];
+				dx[index] = dx[count];
+				dy[index] = dy[count];
+				life[index] = life[count];
+				duration[index] = duration[count];
+				color[index] = color[count];
+				
+				index--;
+				continue;
+			}
+			
+			//slow down
+			dx[index] *= DRAG;
+			dy[index] *= DRAG;
+			
+			//move, wrapping around the screen
+			x[index] = (float)Wrap.wrap(x[index] + dx[index], GamePanel.WIDTH);
+			y[index] = (float)Wrap.wrap(y[index] + dy[index], GamePanel.HEIGHT);
+		}
+	}
+	
+	/**
+	 * Remove every particle
+	 */
+	public void clear()
+	{
+		count = 0;
+	}
+	
+	/**
+	 * Get the number of particles
+	 * @return The number of particles alive
+	 */
+	public int getCount()
+	{
+		return this.count;
+	}
+	
+	/**
+	 * Draw every particle, one batch for each color and fade level
+	 * @param canvas Where we draw
+	 */
+	public void render(final Canvas canvas)
+	{
+		if (count == 0)
+			return;
+		
+		//the simulation never renders, so the paint is only created here
+		if (paint == null)
+		{
+			paint = new Paint();
+			paint.setStrokeWidth(SIZE);
+		}
+		
+		//count the particles in each batch
+		for (int batch = 0; batch < batchCount.length; batch++)
+		{
+			batchCount[batch] = 0;
+		}
+		
+		for (int index = 0; index < count; index++)
+		{
+			batchCount[getBatch(index)]++;
+		}
+		
+		//each batch starts after the previous
+		int start = 0;
+		
+		for (int batch = 0; batch < batchCount.length; batch++)
+		{
+			batchStart[batch] = start;
+			start += batchCount[batch];
+			batchCount[batch] = 0;
+		}
+		
+		//render between the previous and current location, the same as the entities, the velocity is the most recent move
+		final float interpolation = Entity.getInterpolation() - 1;
+		
+		for (int index = 0; index < count; index++)
+		{
+			final int batch = getBatch(index);
+			final int point = (batchStart[batch] + batchCount[batch]) * 2;
+			
+			points[point] = x[index] + (dx[index] * interpolation);
+			points[point + 1] = y[index] + (dy[index] * interpolation);
+			batchCount[batch]++;
+		}
+		
+		//draw each batch
+		for (int batch = 0; batch < batchCount.length; batch++)
+		{
+			if (batchCount[batch] == 0)
+				continue;
+			
+			paint.setColor(BATCH_COLORS[batch]);
+			canvas.drawPoints(points, batchStart[batch] * 2, batchCount[batch] * 2, paint);
+		}
+	}
+	
+	/**
+	 * Get the batch
+	 * @param index The index of the particle
+	 * @return The batch the particle is drawn with, by color and how much it has faded
+	 */
+	private int getBatch(final int index)
+	{
+		final int level = ((life[index] * FADE_LEVELS) - 1) / duration[index];
+		
+		return (color[index] * FADE_LEVELS) + level;
+	}
+	
+	@Override
+	public void dispose()
+	{
+		paint = null;
+	}
+}
@@ -0,0 +1,130 @@
+package com.gamesbykevin.asteroids.entity.geometry;
+
+import java.util.HashMap;
+
+/**
+ * The outline of an entity type with the rotated vertex offsets cached for each step of rotation.<br>
+ * Entities sharing the same outline coordinates share the same shape, so the rotation is only calculated once per step
+ * @author GOD
+ */
+public final class Shape
+{
+	//every shape created, the key is the x-coordinate array
+	private static final HashMap<int[], Shape> SHAPES = new HashMap<int[], Shape>();
+	
+	//the base coordinates
+	private final int[] xpoints, ypoints;
+	
+	//the rotated offsets from the center for each step
+	private final float[][] offsetX, offsetY;
+	
+	//the distance from the center to the furthest point
+	private final float radius;
+	
+	private Shape(final int[] xpoints, final int[] ypoints)
+	{
+		this.xpoints = xpoints;
+		this.ypoints = ypoints;
+		this.offsetX = new float[Trig.STEPS][];
+		this.offsetY = new float[Trig.STEPS][];
+		
+		//find the furthest point from the center
+		float max = 0;
+		
+		for (int index = 0; index < xpoints.length; index++)
+		{
+			max = Math.max(max, (float)Math.sqrt((xpoints[index] * xpoints[index]) + (ypoints[index] * ypoints[index])));
+		}
+		
+		this.radius = max;
+		
+		//calculate every step now, so nothing is calculated during game play
+		for (int step = 0; step < Trig.STEPS; step++)
+		{
+			calculate(step);
+		}
+	}
+	
+	/**
+	 * Get the shape for the outline coordinates
+	 * @param xpoints The x-coordinates, the same array must be used for every entity of this type
+	 * @param ypoints The y-coordinates
+	 * @return The shared shape, or null if the coordinates are null
+	 */
+	public static Shape get(final int[] xpoints, final int[] ypoints)
+	{
+		if (xpoints == null || ypoints == null)
+			return null;
+		
+		Shape shape = SHAPES.get(xpoints);
+		
+		//if the shape doesn't exist yet, create it
+		if (shape == null)
+		{
+			shape = new Shape(xpoints, ypoints);
+			SHAPES.put(xpoints, shape);
+		}
+		
+		return shape;
+	}
+	
+	/**
+	 * Get the number of points
+	 * @return The number of points in the outline
+	 */
+	public int getSize()
+	{
+		return this.xpoints.length;
+	}
+	
+	/**
+	 * Get the radius
+	 * @return The distance from the center to the furthest point of the outline
+	 */
+	public float getRadius()
+	{
+		return this.radius;
+	}
+	
+	/**
+	 * Get the x-offsets
+	 * @param step The step of rotation (0 - Trig.STEPS-1)
+	 * @return The x-offset from the center of each point rotated to the step
+	 */
+	public float[] getOffsetX(final int step)
+	{
+		return offsetX[step];
+	}
+	
+	/**
+	 * Get the y-offsets
+	 * @param step The step of rotation (0 - Trig.STEPS-1)
+	 * @return The y-offset from the center of each point rotated to the step
+	 */
+	public float[] getOffsetY(final int step)
+	{
+		return offsetY[step];
+	}
+	
+	/**
+	 * Calculate the rotated offsets for the step
+	 * @param step The step of rotation
+	 */
+	private void calculate(final int step)
+	{
+		final float cos = Trig.cos(step);
+		final float sin = Trig.sin(step);
+		
+		final float[] x = new float[xpoints.length];
+		final float[] y = new float[ypoints.length];
+		
+		for (int index = 0; index < xpoints.length; index++)
+		{
+			x[index] = (xpoints[index] * cos) - (ypoints[index] * sin);
+			y[index] = (xpoints[index] * sin) + (ypoints[index] * cos);
+		}
+		
+		offsetX[step] = x;
+		offsetY[step] = y;
+	}
+}
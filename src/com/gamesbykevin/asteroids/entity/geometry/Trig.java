@@ -0,0 +1,98 @@
+package com.gamesbykevin.asteroids.entity.geometry;
+
+/**
+ * Sine and cosine values calculated once for every quantized angle.<br>
+ * The game only needs the direction of an entity, so looking up the nearest step is accurate enough
+ * @author GOD
+ */
+public final class Trig
+{
+	/**
+	 * The number of steps in a full rotation
+	 */
+	public static final int STEPS = 360;
+	
+	/**
+	 * The number of degrees in a full rotation
+	 */
+	private static final float DEGREES = 360f;
+	
+	//the values for each step
+	private static final float[] SIN = new float[STEPS];
+	private static final float[] COS = new float[STEPS];
+	
+	static
+	{
+		for (int step = 0; step < STEPS; step++)
+		{
+			final double radians = Math.toRadians(step * (DEGREES / STEPS));
+			
+			SIN[step] = (float)Math.sin(radians);
+			COS[step] = (float)Math.cos(radians);
+		}
+	}
+	
+	private Trig()
+	{
+		//static methods only
+	}
+	
+	/**
+	 * Get the step
+	 * @param degrees The angle (degrees), can be any value
+	 * @return The index of the closest step (0 - STEPS-1)
+	 */
+	public static int getStep(final float degrees)
+	{
+		//round to the closest step, this is also correct for negative angles
+		int step = Math.round(degrees * (STEPS / DEGREES));
+		
+		//keep the step in range
+		step %= STEPS;
+		
+		if (step < 0)
+			step += STEPS;
+		
+		return step;
+	}
+	
+	/**
+	 * Get the sine
+	 * @param step The step (0 - STEPS-1)
+	 * @return The sine of the step angle
+	 */
+	public static float sin(final int step)
+	{
+		return SIN[step];
+	}
+	
+	/**
+	 * Get the cosine
+	 * @param step The step (0 - STEPS-1)
+	 * @return The cosine of the step angle
+	 */
+	public static float cos(final int step)
+	{
+		return COS[step];
+	}
+	
+	/**
+	 * Get the sine
+	 * @param degrees The angle (degrees)
+	 * @return The sine of the closest step
+	 */
+	public static float sin(final float degrees)
+	{
+		return SIN[getStep(degrees)];
+	}
+	
+	/**
+	 * Get the cosine
+	 * @param degrees The angle (degrees)
+	 * @return The cosine of the closest step
+	 */
+	public static float cos(final float degrees)
+	{
+		return COS[getStep(degrees)];
+	}
+}
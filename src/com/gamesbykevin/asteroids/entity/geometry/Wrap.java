@@ -0,0 +1,134 @@
+package com.gamesbykevin.asteroids.entity.geometry;
+
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+/**
+ * The play field wraps around, leaving one edge of the screen enters the opposite edge.<br>
+ * An entity close enough to an edge to cross it has a ghost mask, telling us which wrapped copies of it are also on the screen
+ * @author GOD
+ */
+public final class Wrap
+{
+	/**
+	 * The ghost mask bit of an entity crossing the left edge
+	 */
+	public static final int LEFT = 1;
+	
+	/**
+	 * The ghost mask bit of an entity crossing the right edge
+	 */
+	public static final int RIGHT = 2;
+	
+	/**
+	 * The ghost mask bit of an entity crossing the top edge
+	 */
+	public static final int TOP = 4;
+	
+	/**
+	 * The ghost mask bit of an entity crossing the bottom edge
+	 */
+	public static final int BOTTOM = 8;
+	
+	private Wrap()
+	{
+		//static methods only
+	}
+	
+	/**
+	 * Wrap the value within range
+	 * @param value The value
+	 * @param size The size of the range
+	 * @return The value between 0 (inclusive) and size (exclusive)
+	 */
+	public static double wrap(final double value, final double size)
+	{
+		if (value < 0)
+			return value + size;
+		if (value >= size)
+			return value - size;
+		
+		return value;
+	}
+	
+	/**
+	 * Wrap the index within range
+	 * @param index The index, may be any distance outside of the range
+	 * @param size The size of the range
+	 * @return The index between 0 (inclusive) and size (exclusive)
+	 */
+	public static int wrap(final int index, final int size)
+	{
+		final int result = index % size;
+		
+		return (result < 0) ? result + size : result;
+	}
+	
+	/**
+	 * Get the shortest distance
+	 * @param distance The distance between two coordinates on the screen
+	 * @param size The size of the screen on the same axis
+	 * @return The shortest distance between the coordinates going either direction around the screen
+	 */
+	public static double getShortest(final double distance, final double size)
+	{
+		if (distance > size / 2)
+			return distance - size;
+		if (distance < -size / 2)
+			return distance + size;
+		
+		return distance;
+	}
+	
+	/**
+	 * Get the ghost mask
+	 * @param x Center x-coordinate
+	 * @param y Center y-coordinate
+	 * @param radius The distance from the center to the furthest point
+	 * @return The edges crossed (LEFT, RIGHT, TOP, BOTTOM), 0 if the entity is completely on the screen
+	 */
+	public static int getMask(final double x, final double y, final double radius)
+	{
+		int mask = 0;
+		
+		if (x - radius < 0)
+			mask |= LEFT;
+		if (x + radius > GamePanel.WIDTH)
+			mask |= RIGHT;
+		if (y - radius < 0)
+			mask |= TOP;
+		if (y + radius > GamePanel.HEIGHT)
+			mask |= BOTTOM;
+		
+		return mask;
+	}
+	
+	/**
+	 * Get the x-offset of the wrapped copy
+	 * @param mask The ghost mask
+	 * @return The distance to move the entity to where it appears on the opposite edge, 0 if not crossing a left or right edge
+	 */
+	public static float getOffsetX(final int mask)
+	{
+		if ((mask & LEFT) != 0)
+			return GamePanel.WIDTH;
+		if ((mask & RIGHT) != 0)
+			return -GamePanel.WIDTH;
+		
+		return 0;
+	}
+	
+	/**
+	 * Get the y-offset of the wrapped copy
+	 * @param mask The ghost mask
+	 * @return The distance to move the entity to where it appears on the opposite edge, 0 if not crossing a top or bottom edge
+	 */
+	public static float getOffsetY(final int mask)
+	{
+		if ((mask & TOP) != 0)
+			return GamePanel.HEIGHT;
+		if ((mask & BOTTOM) != 0)
+			return -GamePanel.HEIGHT;
+		
+		return 0;
+	}
+}
@@ -17,7 +17,12 @@ public interface ILasers extends ICommon
 	 * Add a laser
 	 * @param ship The ship that fired the laser
 	 */
-	public void add(final Ship ship);
+	public void add(final Ship ship) throws Exception;
+	
+	/**
+	 * Remove all lasers
+	 */
+	public void clear();
 	
 	/**
 	 * Get the laser count
@@ -1,10 +1,12 @@
 package com.gamesbykevin.asteroids.entity.laser;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
 import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.animation.AnimationTemplate;
+import com.gamesbykevin.asteroids.entity.geometry.Trig;
 import com.gamesbykevin.asteroids.entity.ship.Ship;
+import com.gamesbykevin.asteroids.thread.MainThread;
 
 public class Laser extends Entity 
 {
@@ -34,8 +36,8 @@ public class Laser extends Entity
 	//the amount of time this laser is valid
 	private long duration;
 	
-	//the time of creation
-	private final long time;
+	//the number of updates since the laser was fired
+	private int ticks;
 	
 	/**
 	 * The amount of time the laser is valid (milliseconds)
@@ -53,63 +55,54 @@ public class Laser extends Entity
     private static final int[] YPOINTS = new int[] {-WIDTH / 2, -WIDTH / 2, WIDTH / 2, WIDTH / 2};
 	
     //the ship that fired the laser
-    private final Ship.Type source;
+    private Ship.Type source;
     
-	public Laser(final Ship ship) 
+	protected Laser() 
 	{
 		super(XPOINTS, YPOINTS);
 		
-		//store the ship that fired the laser
-		this.source = ship.getType();
-		
-		//store the time creation
-		this.time = System.currentTimeMillis();
+		//set the dimensions
+		super.setWidth(WIDTH);
+		super.setHeight(HEIGHT);
 		
 		//set the life span of this laser
 		setDuration(DEFAULT_DURATION);
+	}
+	
+	/**
+	 * Reset the laser so it can be fired again
+	 * @param ship The ship that fired the laser
+	 */
+	protected void reset(final Ship ship)
+	{
+		//the laser is alive again
+		super.setDead(false);
 		
-		final int x;
+		//store the ship that fired the laser
+		this.source = ship.getType();
 		
-		//the type of laser
-		final Type type;
+		//start counting the updates
+		this.ticks = 0;
 		
 		//determine which laser we use
 		switch (ship.getType())
 		{
 			case ShipHuman:
-				type = Type.Blue;
-				x = 0;
+				getAnimation().setTemplate(AnimationTemplate.get(Type.Blue, Images.getImage(Assets.ImageGameKey.Lasers), 0, 0, WIDTH, HEIGHT));
 				break;
 		
 			case ShipCpu:
 			default:
-				type = Type.Green;
-				x = WIDTH;
+				getAnimation().setTemplate(AnimationTemplate.get(Type.Green, Images.getImage(Assets.ImageGameKey.Lasers), WIDTH, 0, WIDTH, HEIGHT));
 				break;
 		}
 		
-		//create the animation
-		Animation animation = new Animation(Images.getImage(Assets.ImageGameKey.Lasers), x, 0, WIDTH, HEIGHT); 
-		
-		//add animation to the sprite sheet
-		super.getSpritesheet().add(type, animation);
-		
-		//set the current animation
-		super.getSpritesheet().setKey(type);
-		
-		//set the dimensions
-		super.setWidth(WIDTH);
-		super.setHeight(HEIGHT);
-		
 		//assign the desired rotation
 		super.setRotation(ship.getRotation());
 		
-		//convert from degrees to radian's
-		final double radians = Math.toRadians(ship.getRotation());
-		
 		//set the velocity according to the ship
-		super.setDX(VELOCITY * Math.cos(radians));
-		super.setDY(VELOCITY * Math.sin(radians));
+		super.setDX(VELOCITY * Trig.cos(ship.getRotation()));
+		super.setDY(VELOCITY * Trig.sin(ship.getRotation()));
 		
 		//apply this lasers velocity
 		super.setDX(VELOCITY * getDX());
@@ -118,6 +111,12 @@ public class Laser extends Entity
     	//position the laser accordingly
     	setX(ship.getX() + (ship.getWidth() / 2) - (getWidth() / 2));
     	setY(ship.getY() + (ship.getHeight() / 2) - (getHeight() / 2));
+    	
+		//make sure the outline matches the new location
+		updateOutline();
+		
+		//we don't want to render a move from the previous location
+		resetInterpolation();
     }
 
 	/**
@@ -153,8 +152,11 @@ public class Laser extends Entity
 		//update the location
 		updateLocation();
 		
+		//count the update
+		ticks++;
+		
 		//determine if the life span is over
-		if (System.currentTimeMillis() - time >= getDuration())
+		if (ticks * MainThread.TICK_DURATION >= getDuration())
 			super.setDead(true);
 	}
 }
\ No newline at end of file
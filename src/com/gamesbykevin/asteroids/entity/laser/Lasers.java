@@ -2,14 +2,13 @@ package com.gamesbykevin.asteroids.entity.laser;
 
 import java.util.ArrayList;
 
-import com.gamesbykevin.androidframework.resources.Audio;
-import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Pool;
 import com.gamesbykevin.asteroids.entity.Entity;
 import com.gamesbykevin.asteroids.entity.asteroid.Asteroid;
+import com.gamesbykevin.asteroids.entity.collision.Collision;
 import com.gamesbykevin.asteroids.entity.ship.Ship;
 import com.gamesbykevin.asteroids.entity.ship.Ship.Type;
 import com.gamesbykevin.asteroids.game.Game;
-import com.gamesbykevin.asteroids.panel.GamePanel;
 import com.gamesbykevin.asteroids.player.Player;
 import com.gamesbykevin.asteroids.screen.OptionsScreen;
 
@@ -22,11 +21,22 @@ public class Lasers implements ILasers
     
     //the list of lasers fired
     private ArrayList<Laser> lasers;
-
+    
+    //the asteroids close enough to a laser to check for collision
+    private ArrayList<Asteroid> candidates;
+	
 	/**
 	 * The limited number of lasers we can have per each ship
 	 */
 	private static final int LASER_LIMIT = 1;
+	
+	/**
+	 * The maximum number of lasers we will keep for reuse
+	 */
+	private static final int POOL_CAPACITY = 4;
+	
+	//the pool of reusable lasers
+	private Pool<Laser> pool;
     
 	public Lasers(final Game game) 
 	{
@@ -35,37 +45,51 @@ public class Lasers implements ILasers
 		
 		//create a new list for our bullets
 		this.lasers = new ArrayList<Laser>();
+		
+		//create the list used for collision checks
+		this.candidates = new ArrayList<Asteroid>();
+		
+		//create the pool of lasers
+		this.pool = new Pool<Laser>(POOL_CAPACITY)
+		{
+			@Override
+			protected Laser create()
+			{
+				return new Laser();
+			}
+		};
 	}
 	
-
+	/**
+	 * Get the pool
+	 * @return The pool containing the reusable lasers
+	 */
+	public Pool<Laser> getPool()
+	{
+		return this.pool;
+	}
+	
+	
 	@Override
-	public void add(Ship ship)
+	public void add(Ship ship) throws Exception
 	{
 		//we can't add a laser if we reached the limit or are dead
 		if (getCount(ship.getType()) >= LASER_LIMIT || ship.isDead())
 			return;
 		
-		//add the new laser to our list
-		get().add(new Laser(ship));
+		//get a laser from the pool
+		final Laser laser = getPool().acquire();
 		
-		//play random sound effect
-		switch (GamePanel.RANDOM.nextInt(3))
-		{
-			case 0:
-			default:
-				Audio.play(Assets.AudioGameKey.Laser1);
-				break;
-				
-			case 1:
-				Audio.play(Assets.AudioGameKey.Laser2);
-				break;
-				
-			case 2:
-				Audio.play(Assets.AudioGameKey.Laser3);
-				break;
-		}
+		//fire from the ship
+		laser.reset(ship);
+		
+		//add the laser to our list
+		get().add(laser);
+		
+		//report the laser fired
+		game.getEvents().onLaserFired(ship.getType());
 	}
-
+	
 	@Override
 	public int getCount(Type type) 
 	{
@@ -89,7 +113,19 @@ public class Lasers implements ILasers
 	{
 		return this.lasers;
 	}
-
+	
+	@Override
+	public void clear()
+	{
+		//return every laser to the pool
+		for (int index = 0; index < get().size(); index++)
+		{
+			getPool().release(get().get(index));
+		}
+		
+		get().clear();
+	}
+	
 	@Override
 	public void update() throws Exception 
 	{
@@ -105,8 +141,13 @@ public class Lasers implements ILasers
         	//determine if the laser needs to be removed
         	if (laser.isDead())
         	{
-        		//remove from list
-        		get().remove(index);
+        		//remove from list, the last laser is moved here since order doesn't matter
+        		final int last = get().size() - 1;
+        		get().set(index, get().get(last));
+        		get().remove(last);
+        		
+        		//return to the pool for reuse
+        		getPool().release(laser);
         		
         		//adjust index
         		index--;
@@ -114,45 +155,39 @@ public class Lasers implements ILasers
         	else
         	{
         		//check collision according to the game mode
-    			switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+    			switch (game.getMode())
     			{
     				//classic and coop
     				case OptionsScreen.MODE_CLASSIC:
     				case OptionsScreen.MODE_COOP:
     				default:
-    	        		//check for collision with asteroids
-    	        		for (Asteroid asteroid : game.getAsteroids().get())
+    	        		//check for collision with the asteroids near the path of the laser
+    	        		game.getAsteroids().getGrid().query(laser, laser.getMoveX(), laser.getMoveY(), candidates);
+    	        		
+    	        		//the asteroid the laser hit first during the update
+    	        		Asteroid asteroid = null;
+    	        		float earliest = Collision.NO_IMPACT;
+    	        		
+    	        		for (int i = 0; i < candidates.size(); i++)
     	        		{
-    	        			if (laser.hasCollision(asteroid, true))
+    	        			final float time = laser.getTimeOfImpact(candidates.get(i), false);
+    	        			
+    	        			if (time != Collision.NO_IMPACT && (earliest == Collision.NO_IMPACT || time < earliest))
     	        			{
-    	                		//add effect to be displayed
-    	                		game.getEffects().add(laser);
-    	                		
-    	                		//flag the asteroid dead
-    	                		asteroid.setDead(true);
-    	        				
-    	                		//spawn smaller asteroids
-    	                		game.getAsteroids().spawnChildren(asteroid);
-    	                		
-    	        				//flag this laser as dead
-    	        				laser.setDead(true);
-    	        				
-    	        				//add points to the appropriate player
-    	        				switch (laser.getSource())
-    	        				{
-    		        				case ShipHuman:
-    		        					game.getHuman().addScore(asteroid.getScore());
-    		        					break;
-    		        					
-    		        				case ShipCpu:
-    		        					game.getCpu().addScore(asteroid.getScore());
-    		        					break;
-    	        				}
-    	        				
-    	        				//no need to check the other asteroids
-    	        				break;
+    	        				asteroid = candidates.get(i);
+    	        				earliest = time;
     	        			}
     	        		}
+    	        		
+    	        		//place the laser at the contact of the first hit
+    	        		if (asteroid != null && laser.getTimeOfImpact(asteroid, true) != Collision.NO_IMPACT)
+    	        		{
+    	        			//flag this laser as dead
+    	        			laser.setDead(true);
+    	        			
+    	        			//the asteroid is destroyed at the end of the update, the points go to the player that fired
+    	        			game.getCommands().destroy(asteroid, laser, (laser.getSource() == Type.ShipHuman) ? game.getHuman() : game.getCpu());
+    	        		}
     					break;
     				
     				//versus
@@ -192,25 +227,13 @@ public class Lasers implements ILasers
         				if (ship != null && player != null)
         				{
         					//make sure the ship is not dead, and has collision
-        					if (!ship.isDead() && laser.hasCollision(ship, true))
+        					if (!ship.isDead() && laser.getTimeOfImpact(ship, true) != Collision.NO_IMPACT)
         					{
-        						//flag the ship dead
-        						ship.setDead(true);
-        						
-        						//deduct a life
-        						player.setLives(player.getLives() - 1);
-        						
-		                		//add effect to be displayed
-		                		game.getEffects().add(ship);
-		                		
 		        				//flag this laser as dead
 		        				laser.setDead(true);
 		        				
-		        				//add score to winner
-		        				winner.addScore(1000);
-		        				
-		        				//in versus mode, remove all remaining lasers
-		        				get().clear();
+        						//the ship is destroyed at the end of the update, then the winner scores and all lasers are removed
+        						game.getCommands().shot(player, winner);
         					}
         				}
     					break;
@@ -220,17 +243,17 @@ public class Lasers implements ILasers
         	}
         }
 	}
-
+	
 	@Override
 	public void render(Canvas canvas) throws Exception 
 	{
 		//render all the lasers
-        for (Laser laser : get())
+        for (int index = 0; index < get().size(); index++)
         {
-        	laser.render(canvas);
+        	get().get(index).render(canvas);
         }
 	}
-
+	
 	@Override
 	public void dispose() 
 	{
@@ -248,5 +271,17 @@ public class Lasers implements ILasers
 	        lasers.clear();
 	        lasers = null;
 		}
+		
+		if (pool != null)
+		{
+			pool.dispose();
+			pool = null;
+		}
+		
+		if (candidates != null)
+		{
+			candidates.clear();
+			candidates = null;
+		}
 	}
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.gamesbykevin.asteroids.entity.ship;
 import com.gamesbykevin.asteroids.entity.Entity;
 import com.gamesbykevin.asteroids.entity.asteroid.Asteroid;
 import com.gamesbykevin.asteroids.game.Game;
-import com.gamesbykevin.asteroids.screen.OptionsScreen;
 
 public class Cpu extends Ship 
 {
@@ -75,15 +74,17 @@ public class Cpu extends Ship
 			double distance = 0;
 			
 			//determine who our target is
-			switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+			switch (game.getMode())
 			{
 				//classic and coop
 				case 0:
 				case 1:
 				default:
 					//check all the asteroids for the closest one
-					for (Asteroid asteroid : game.getAsteroids().get())
+					for (int index = 0; index < game.getAsteroids().get().size(); index++)
 					{
+						final Asteroid asteroid = game.getAsteroids().get().get(index);
+						
 						//store the asteroids original coordinates
 						final double ax = asteroid.getX();
 						final double ay = asteroid.getY();
@@ -327,4 +328,13 @@ public class Cpu extends Ship
 	{
 		return this.action;
 	}
+	
+	/**
+	 * Remove the current target and action, so a new decision is made on the next update
+	 */
+	public void resetTarget()
+	{
+		setAction(null);
+		setTarget(null);
+	}
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.gamesbykevin.asteroids.entity.ship;
 
-import com.gamesbykevin.androidframework.anim.Animation;
 import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
 import com.gamesbykevin.asteroids.entity.Entity;
 import com.gamesbykevin.asteroids.entity.IEntity;
+import com.gamesbykevin.asteroids.entity.animation.AnimationTemplate;
+import com.gamesbykevin.asteroids.entity.animation.RotationCache;
+import com.gamesbykevin.asteroids.entity.geometry.Trig;
 import com.gamesbykevin.asteroids.panel.GamePanel;
 
 import android.graphics.Canvas;
@@ -37,14 +39,16 @@ public class Ship extends Entity implements IEntity
 	private static final long DEFAULT_ANIMATION_DELAY = 100L;
 	
 	/**
-	 * Different animations for the ship
-	 *
+	 * Different animations for each type of ship
 	 */
-	public enum Key
+	private enum Key
 	{
-		Idle, Thrust
+		HumanIdle, HumanThrust, CpuIdle, CpuThrust
 	}
 	
+	//the animations of this ship
+	private final AnimationTemplate animationIdle, animationThrust;
+	
 	//are we speeding
 	private boolean thrust = false;
 	
@@ -99,37 +103,21 @@ public class Ship extends Entity implements IEntity
 		//set the speed rate when accelerating
 		setSpeedRate(DEFAULT_SPEED_RATE);
 		
-		//the desired image key
-		final Assets.ImageGameKey imageKey;
-		
-		//determine animation key
+		//get the shared animations for this type of ship
     	switch (type)
     	{
 	    	case ShipHuman:
-	    		imageKey = Assets.ImageGameKey.ShipHuman;
+	    		this.animationIdle = AnimationTemplate.get(Key.HumanIdle, Images.getImage(Assets.ImageGameKey.ShipHuman), 0, 0, WIDTH, HEIGHT);
+	    		this.animationThrust = AnimationTemplate.get(Key.HumanThrust, Images.getImage(Assets.ImageGameKey.ShipHuman), WIDTH, 0, WIDTH, HEIGHT, 3, 3, DEFAULT_ANIMATION_DELAY, true);
 	    		break;
     		
 	    	case ShipCpu:
 			default:
-				imageKey = Assets.ImageGameKey.ShipCpu;
+	    		this.animationIdle = AnimationTemplate.get(Key.CpuIdle, Images.getImage(Assets.ImageGameKey.ShipCpu), 0, 0, WIDTH, HEIGHT);
+	    		this.animationThrust = AnimationTemplate.get(Key.CpuThrust, Images.getImage(Assets.ImageGameKey.ShipCpu), WIDTH, 0, WIDTH, HEIGHT, 3, 3, DEFAULT_ANIMATION_DELAY, true);
 	    		break;
     	}
     	
-        //add default ship animation to sprite sheet
-        getSpritesheet().add(Key.Idle, new Animation(Images.getImage(imageKey), 0, 0, WIDTH, HEIGHT));
-		
-        //create animation for thrust
-        Animation animation = new Animation(Images.getImage(imageKey), WIDTH, 0, WIDTH, HEIGHT, 3, 1, 3);
-        
-        //the amount of time between each animation
-        animation.setDelay(DEFAULT_ANIMATION_DELAY);
-        
-        //this animation will loop
-        animation.setLoop(true);
-        
-        //add animation to sprite sheet
-        getSpritesheet().add(Key.Thrust, animation);
-        
 		//set dimensions
 		super.setWidth(WIDTH);
 		super.setHeight(HEIGHT);
@@ -139,7 +127,10 @@ public class Ship extends Entity implements IEntity
 		super.setY((GamePanel.HEIGHT / 2) - (HEIGHT / 2));
 		
 		//set default animation to idle
-		getSpritesheet().setKey(Key.Idle);
+		getAnimation().setTemplate(animationIdle);
+		
+		//the ship is idle most of the time, so only the idle animation is worth the memory of the rotation cache
+		RotationCache.add(animationIdle);
 	}
 
 	/**
@@ -169,7 +160,7 @@ public class Ship extends Entity implements IEntity
 		this.thrust = thrust;
 		
 		//make sure the appropriate animation is set
-		getSpritesheet().setKey(hasThrust() ? Key.Thrust : Key.Idle);
+		getAnimation().setTemplate(hasThrust() ? animationThrust : animationIdle);
 	}
 	
 	/**
@@ -217,8 +208,8 @@ public class Ship extends Entity implements IEntity
 	@Override
 	public void update() throws Exception 
 	{
-		//update the sprite sheet animation
-		super.getSpritesheet().update();
+		//update the animation
+		getAnimation().update();
 		
 		//update the rotation according to the current rotation speed
 		super.setRotation(super.getRotation() + super.getRotationSpeed());
@@ -226,8 +217,8 @@ public class Ship extends Entity implements IEntity
 		//update the velocity accordingly
 		if (hasThrust())
 		{
-			setDX(getDX() + (getSpeedRate() * Math.cos(Math.toRadians(getRotation()))));
-            setDY(getDY() + (getSpeedRate() * Math.sin(Math.toRadians(getRotation()))));
+			setDX(getDX() + (getSpeedRate() * Trig.cos(getRotation())));
+            setDY(getDY() + (getSpeedRate() * Trig.sin(getRotation())));
         }
         
         //slow down the velocity speed always
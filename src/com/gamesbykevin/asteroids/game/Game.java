@@ -1,19 +1,25 @@
 package com.gamesbykevin.asteroids.game;
 
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
+import java.util.HashMap;
 
 import com.gamesbykevin.androidframework.resources.Audio;
-import com.gamesbykevin.androidframework.resources.Font;
-import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Rng;
 import com.gamesbykevin.asteroids.entity.asteroid.Asteroids;
 import com.gamesbykevin.asteroids.entity.effect.Effects;
 import com.gamesbykevin.asteroids.entity.laser.Lasers;
+import com.gamesbykevin.asteroids.game.command.CommandBuffer;
+import com.gamesbykevin.asteroids.game.event.Events;
+import com.gamesbykevin.asteroids.game.event.IEvents;
+import com.gamesbykevin.asteroids.game.replay.IReplayStore;
+import com.gamesbykevin.asteroids.game.replay.Playback;
+import com.gamesbykevin.asteroids.game.replay.Replay;
 import com.gamesbykevin.asteroids.game.controller.Controller;
 import com.gamesbykevin.asteroids.overlay.Overlay;
 import com.gamesbykevin.asteroids.player.Player;
+import com.gamesbykevin.asteroids.profiler.Profiler;
+import com.gamesbykevin.asteroids.profiler.Profiler.Counter;
+import com.gamesbykevin.asteroids.profiler.Profiler.Section;
 import com.gamesbykevin.asteroids.screen.OptionsScreen;
 import com.gamesbykevin.asteroids.screen.ScreenManager;
 
@@ -26,9 +32,6 @@ public final class Game implements IGame
     //our main screen object reference
     private final ScreenManager screen;
     
-    //paint object to draw text
-    private Paint paint;
-    
     //our controller object
     private Controller controller;
     
@@ -47,15 +50,55 @@ public final class Game implements IGame
     //our collection of effects
     private Effects effects;
     
+    //the changes applied at the end of each update
+    private CommandBuffer commands;
+    
     //the human and cpu players
     private Player human, cpu;
     
     //the overlay to display between games
     private Overlay overlay;
     
+    //where the game events are reported
+    private IEvents events;
+    
+    //the seed of the current game
+    private long seed;
+    
+    //the random number generator for each subsystem
+    private HashMap<Rng.Stream, Rng> streams;
+    
+    //the number of updates since the game started
+    private int tick = 0;
+    
+    //the recording of the current game
+    private Replay replay;
+    
+    //are we playing back the recording
+    private boolean playback = false;
+    
+    //the game mode and lives option index of the current game
+    private int mode, lives;
+    
+    //the result of the game once it is over, null while the game is being played
+    private String result;
+    
+    //where the recordings are kept, nothing is kept unless the screens assign the storage
+    private IReplayStore replays = IReplayStore.NONE;
+    
+    /**
+     * Create a game without any screens.<br>
+     * Nothing is rendered and the events are ignored, so the game can be simulated without the screens
+     * @throws Exception
+     */
+    public Game() throws Exception
+    {
+    	this(null);
+    }
+    
     /**
      * Create our game object
-     * @param screen The main screen
+     * @param screen The main screen, null if the game is simulated without the screens
      * @throws Exception
      */
     public Game(final ScreenManager screen) throws Exception
@@ -63,16 +106,33 @@ public final class Game implements IGame
         //our main screen object reference
         this.screen = screen;
         
+        //create the random number generator for each subsystem
+        this.streams = new HashMap<Rng.Stream, Rng>();
+        
+        for (Rng.Stream stream : Rng.Stream.values())
+        {
+        	this.streams.put(stream, new Rng(0));
+        }
+        
+        //assign a seed until a game is started
+        setSeed(System.nanoTime());
+        
         //create new controller
         this.controller = new Controller(this);
         
         //create new overlay
         this.overlay = new Overlay(this);
+        
+        //create the changes applied at the end of each update
+        this.commands = new CommandBuffer(this);
+        
+        //play sound effects and vibrate for the game events, there is nothing to play without the screens
+        this.events = (screen != null) ? new Events(this) : Playback.SILENT;
     }
     
     /**
      * Get the main screen object reference
-     * @return The main screen object reference
+     * @return The main screen object reference, null if the game is simulated without the screens
      */
     public ScreenManager getScreen()
     {
@@ -88,6 +148,197 @@ public final class Game implements IGame
     	return this.controller;
     }
     
+    /**
+     * Assign the seed.<br>
+     * Every random number generator will be reset, so the same seed will produce the same game
+     * @param seed The seed of the game
+     */
+    private void setSeed(final long seed)
+    {
+    	this.seed = seed;
+    	
+    	for (Rng.Stream stream : Rng.Stream.values())
+    	{
+    		getRandom(stream).setSeed(seed, stream);
+    	}
+    }
+    
+    /**
+     * Get the seed
+     * @return The seed of the current game
+     */
+    public long getSeed()
+    {
+    	return this.seed;
+    }
+    
+    /**
+     * Get the random number generator
+     * @param stream The subsystem using the random numbers
+     * @return The random number generator for the subsystem
+     */
+    public Rng getRandom(final Rng.Stream stream)
+    {
+    	return this.streams.get(stream);
+    }
+    
+    /**
+     * Get the tick
+     * @return The number of updates since the game started
+     */
+    public int getTick()
+    {
+    	return this.tick;
+    }
+    
+    /**
+     * Get the replay
+     * @return The recording of the current game
+     */
+    public Replay getReplay()
+    {
+    	return this.replay;
+    }
+    
+    /**
+     * Are we playing back a recording?
+     * @return true if the controls come from the recording, false if they come from the player
+     */
+    public boolean hasPlayback()
+    {
+    	return this.playback;
+    }
+    
+    /**
+     * Get the mode
+     * @return The game mode option index of the current game
+     */
+    public int getMode()
+    {
+    	return this.mode;
+    }
+    
+    /**
+     * Get the lives
+     * @return The lives option index of the current game
+     */
+    public int getLives()
+    {
+    	return this.lives;
+    }
+    
+    /**
+     * Is the game over?
+     * @return true if the game has ended, false while the game is being played
+     */
+    public boolean isGameOver()
+    {
+    	return (this.result != null);
+    }
+    
+    /**
+     * Get the result
+     * @return The result of the game ("Game Over", "You win", etc..), null while the game is being played
+     */
+    public String getResult()
+    {
+    	return this.result;
+    }
+    
+    /**
+     * End the game.<br>
+     * The lasers and effects are removed and the game over is reported, the screens will display the result
+     * @param result The result of the game ("Game Over", "You win", etc..)
+     */
+    public void setGameOver(final String result)
+    {
+    	this.result = result;
+    	
+		//remove any explosions
+		getEffects().clear();
+		
+		//remove any existing lasers
+		getLasers().clear();
+		
+		//report the game over
+		getEvents().onGameOver();
+		
+		//keep the recording of the game that just ended
+		saveReplay();
+    }
+    
+    /**
+     * Assign where the recordings are kept
+     * @param replays The storage of the recordings
+     */
+    public void setReplayStore(final IReplayStore replays)
+    {
+    	this.replays = replays;
+    }
+    
+    /**
+     * Get the replay store
+     * @return Where the recordings are kept
+     */
+    public IReplayStore getReplayStore()
+    {
+    	return this.replays;
+    }
+    
+    /**
+     * Keep the recording of the game being played.<br>
+     * This is done when the game is over and when the game is left, a recording being played back isn't kept
+     */
+    public void saveReplay()
+    {
+    	if (getReplay() == null || hasPlayback() || getTick() == 0)
+    		return;
+    	
+    	try
+    	{
+    		getReplayStore().save(getReplay());
+    	}
+    	catch (Exception e)
+    	{
+    		e.printStackTrace();
+    	}
+    }
+    
+    /**
+     * Start the game over and play back the recording.<br>
+     * The game uses the same options as the recording
+     * @param replay The recording to play back
+     * @throws Exception
+     */
+    public void play(final Replay replay) throws Exception
+    {
+    	//start with the same seed and options
+    	start(replay.getSeed(), replay.getMode(), replay.getLives());
+    	
+    	//the controls will come from the recording
+    	this.replay = replay;
+    	this.replay.rewind();
+    	this.playback = true;
+    }
+    
+    /**
+     * Get the events
+     * @return Where the game events are reported
+     */
+    public IEvents getEvents()
+    {
+    	return this.events;
+    }
+    
+    /**
+     * Assign the events
+     * @param events Where the game events are reported
+     */
+    public void setEvents(final IEvents events)
+    {
+    	this.events = events;
+    }
+    
     /**
      * Get the effects
      * @return Our collection of objects
@@ -95,11 +346,20 @@ public final class Game implements IGame
     public Effects getEffects()
     {
     	if (this.effects == null)
-    		this.effects = new Effects();
+    		this.effects = new Effects(this);
     	
     	return this.effects;
     }
     
+    /**
+     * Get the commands
+     * @return The changes found during the update, applied at the end of the update
+     */
+    public CommandBuffer getCommands()
+    {
+    	return this.commands;
+    }
+    
     /**
      * Get the lasers
      * @return Our collection of objects
@@ -128,7 +388,7 @@ public final class Game implements IGame
     public Asteroids getAsteroids()
     {
     	if (this.asteroids == null)
-    		this.asteroids = new Asteroids();
+    		this.asteroids = new Asteroids(getRandom(Rng.Stream.Asteroids));
     	
     	return this.asteroids;
     }
@@ -163,10 +423,10 @@ public final class Game implements IGame
     }
     
     /**
-     * Flag notify
+     * Flag notify, the screens flag this once the loading screen has been displayed
      * @param notify True if we notified the user, false otherwise
      */
-    private void setNotify(final boolean notify)
+    public void setNotify(final boolean notify)
     {
     	this.notify = notify;
     }
@@ -198,26 +458,6 @@ public final class Game implements IGame
     	return this.cpu;
     }
     
-    /**
-     * Get the paint object
-     * @return The paint object used to draw text in the game
-     */
-    public Paint getPaint()
-    {
-    	//if the object has not been created yet
-    	if (this.paint == null)
-    	{
-            //create new paint object
-            this.paint = new Paint();
-            this.paint.setTypeface(Font.getFont(Assets.FontGameKey.Default));
-            this.paint.setTextSize(24f);
-            this.paint.setColor(Color.WHITE);
-            this.paint.setLinearText(false);
-    	}
-    	
-        return this.paint;
-    }
-    
     @Override
     public void update(final int action, final float x, final float y) throws Exception
     {
@@ -245,93 +485,54 @@ public final class Game implements IGame
 	        	//flag reset false
 	        	setReset(false);
         		
-        		//remove any existing asteroids
-        		getAsteroids().get().clear();
-        		
-        		//remove any existing lasers
-        		getLasers().get().clear();
+        		//start a new game, or play back the most recent recording if enabled
+        		if (!Playback.ENABLED || !Playback.playLatest(this))
+        			start();
         		
-        		//remove any existing effects
-        		getEffects().get().clear();
-        		
-        		//start at wave 1
-        		getOverlay().setWave(1);
-        		
-        		//reset the overlay
-        		getOverlay().reset();
-        		
-        		//create ships based on the game mode
-        		switch (getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
-        		{
-        			//classic
-        			case OptionsScreen.MODE_CLASSIC:
-        			default:
-        				this.human = new Player(this, true);
-        				this.cpu = null;
-        				break;
-        				
-        			//coop and versus
-        			case OptionsScreen.MODE_COOP:
-        			case OptionsScreen.MODE_VERSUS:
-        				this.human = new Player(this, true);
-        				this.cpu = new Player(this, false);
-        				break;
-        		}
-	        	
-	        	//reset controller
-	        	if (getController() != null)
-	        		getController().reset();
-	        	
-	        	//the number of lives for the ship
-	        	final int lives;
-	        	
-	        	//determine how many lives the ships will get
-	    		switch (getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Lives))
-	    		{
-		    		case 0:
-	    			default:
-		    			lives = 5;
-		    			break;
-		    			
-		    		case 1:
-		    			lives = 10;
-		    			break;
-		    			
-		    		case 2:
-		    			lives = 3;
-		    			break;
-	    		}
-	    		
-	    		//assign the lives to each player
-	    		if (getHuman() != null)
-	    			getHuman().setLives(lives);
-	    		if (getCpu() != null)
-	    			getCpu().setLives(lives);
-	    		
 	    		//play random song
 	    		playSong();
         	}
         }
-        else
+        else if (!isGameOver())
         {
+        	//count the update
+        	tick++;
+        	
         	if (getOverlay().isComplete())
         	{
+        		Profiler.begin(Section.Players);
+        		
         		if (getHuman() != null)
         			getHuman().update();
         		
         		if (getCpu() != null)
         			getCpu().update();
         		
+        		Profiler.end(Section.Players);
+        		
+        		Profiler.begin(Section.Asteroids);
 	        	getAsteroids().update();
+	        	Profiler.end(Section.Asteroids);
+	        	
+	        	Profiler.begin(Section.Lasers);
 	        	getLasers().update();
-	        	getEffects().update();
+	        	Profiler.end(Section.Lasers);
 	        	
 	        	//update the game elements
+	        	Profiler.begin(Section.Controller);
+	        	
 	        	if (getController() != null)
 	        		getController().update();
 	        	
+	        	Profiler.end(Section.Controller);
+	        	
+	        	//now that everything has been checked, apply the changes
+	        	Profiler.begin(Section.Commit);
+	        	getCommands().commit();
+	        	Profiler.end(Section.Commit);
+	        	
 				//determine what to check for by game mode
-				switch (getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+				switch (getMode())
 				{
 					//classic and coop
 					case OptionsScreen.MODE_CLASSIC:
@@ -355,11 +556,133 @@ public final class Game implements IGame
         	}
         	
     		//update always
+    		Profiler.begin(Section.Overlay);
     		getOverlay().update();
+    		Profiler.end(Section.Overlay);
 
-        	//update effects always
+        	//update effects always, once per update so they also play during the overlay transitions
+        	Profiler.begin(Section.Effects);
         	getEffects().update();
+        	Profiler.end(Section.Effects);
+        	Profiler.count(Counter.Effects, getEffects().getCount());
+        	Profiler.count(Counter.Particles, getEffects().getParticles().getCount());
+        }
+    }
+    
+    /**
+     * Start a new game with a new seed, using the options selected on the options screen
+     * @throws Exception
+     */
+    public void start() throws Exception
+    {
+    	start(System.nanoTime());
+    }
+    
+    /**
+     * Start a new game, using the options selected on the options screen
+     * @param seed The seed of the game, the same seed and input will produce the same game
+     * @throws Exception
+     */
+    public void start(final long seed) throws Exception
+    {
+    	start(
+    		seed, 
+    		getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode), 
+    		getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Lives));
+    }
+    
+    /**
+     * Start a new game.<br>
+     * Any existing asteroids, lasers and effects are removed and new players are created depending on the game mode
+     * @param seed The seed of the game, the same seed and input will produce the same game
+     * @param mode The game mode option index
+     * @param lives The lives option index
+     * @throws Exception
+     */
+    public void start(final long seed, final int mode, final int lives) throws Exception
+    {
+        //reset the random number generators
+        setSeed(seed);
+        
+        //store the options of this game
+        this.mode = mode;
+        this.lives = lives;
+        
+        //the game is being played
+        this.result = null;
+        
+        //start counting the updates
+        this.tick = 0;
+        
+        //record the new game
+        this.replay = new Replay(seed, mode, lives);
+        this.playback = false;
+        
+        //remove any existing asteroids
+        getAsteroids().clear();
+        
+        //remove any existing lasers
+        getLasers().clear();
+        
+        //remove any existing effects
+        getEffects().clear();
+        
+        //remove any changes not yet applied
+        getCommands().clear();
+        
+        //start at wave 1
+        getOverlay().setWave(1);
+        
+        //reset the overlay
+        getOverlay().reset();
+        
+        //create ships based on the game mode
+        switch (getMode())
+        {
+        	//classic
+        	case OptionsScreen.MODE_CLASSIC:
+        	default:
+        		this.human = new Player(this, true);
+        		this.cpu = null;
+        		break;
+        		
+        	//coop and versus
+        	case OptionsScreen.MODE_COOP:
+        	case OptionsScreen.MODE_VERSUS:
+        		this.human = new Player(this, true);
+        		this.cpu = new Player(this, false);
+        		break;
+        }
+        
+        //reset controller
+        if (getController() != null)
+        	getController().reset();
+        
+        //the number of lives for the ship
+        final int count;
+        
+        //determine how many lives the ships will get
+        switch (getLives())
+        {
+        	case 0:
+        	default:
+        		count = 5;
+        		break;
+        		
+        	case 1:
+        		count = 10;
+        		break;
+        		
+        	case 2:
+        		count = 3;
+        		break;
         }
+        
+        //assign the lives to each player
+        if (getHuman() != null)
+        	getHuman().setLives(count);
+        if (getCpu() != null)
+        	getCpu().setLives(count);
     }
     
     /**
@@ -368,7 +691,7 @@ public final class Game implements IGame
     public final void playSong()
     {
         //play different song dependent on game mode
-    	switch (getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+    	switch (getMode())
     	{
     		default:
         	case OptionsScreen.MODE_CLASSIC:
@@ -385,61 +708,17 @@ public final class Game implements IGame
     	}
     }
     
-    /**
-     * Render game elements
-     * @param canvas Where to write the pixel data
-     * @throws Exception 
-     */
-    @Override
-    public void render(final Canvas canvas) throws Exception
-    {
-    	if (hasReset())
-    	{
-			//render loading screen
-			canvas.drawBitmap(Images.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
-			
-			//flag that the user has been notified
-			setNotify(true);
-    	}
-    	else
-    	{
-    		//render these elements when the overlay is complete
-    		if (getOverlay().isComplete())
-    		{
-	    		//render the lasers
-	    		getLasers().render(canvas);
-	    		
-	    		//render the asteroids
-	    		getAsteroids().render(canvas);
-	    		
-		    	//render the players
-		    	if (getHuman() != null)
-		    		getHuman().render(canvas);
-		    	if (getCpu() != null)
-		    		getCpu().render(canvas);
-    		}
-    		
-    		//render the effects
-    		getEffects().render(canvas);
-	    	
-    		//render these elements when the overlay is complete
-    		if (getOverlay().isComplete())
-    		{
-    	    	//render the controller
-    	    	if (getController() != null)
-    	    		getController().render(canvas);
-    		}
-    		
-	    	//render the overlay
-	    	if (getOverlay() != null)
-	    		getOverlay().render(canvas);
-    	}
-    }
-    
     @Override
     public void dispose()
     {
-        this.paint = null;
+        this.events = null;
+        this.replay = null;
+        
+        if (streams != null)
+        {
+        	streams.clear();
+        	streams = null;
+        }
         
         if (human != null)
         {
@@ -476,5 +755,11 @@ public final class Game implements IGame
         	effects.dispose();
         	effects = null;
         }
+        
+        if (commands != null)
+        {
+        	commands.dispose();
+        	commands = null;
+        }
     }
 }
\ No newline at end of file
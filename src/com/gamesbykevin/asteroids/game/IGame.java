@@ -2,8 +2,6 @@ package com.gamesbykevin.asteroids.game;
 
 import com.gamesbykevin.androidframework.resources.Disposable;
 
-import android.graphics.Canvas;
-
 /**
  * Game interface methods
  * @author GOD
@@ -21,13 +19,6 @@ public interface IGame extends Disposable
      */
     public void update() throws Exception;
     
-    /**
-     * Logic to render the game
-     * @param canvas Canvas where we draw
-     * @throws Exception
-     */
-    public void render(final Canvas canvas) throws Exception;
-    
     /**
      * Update the game based on a motion event
      * @param action The action of the MotionEvent
@@ -0,0 +1,105 @@
+package com.gamesbykevin.asteroids.game;
+
+import com.gamesbykevin.asteroids.entity.asteroid.FieldWorkers;
+import com.gamesbykevin.asteroids.screen.OptionsScreen;
+import com.gamesbykevin.asteroids.thread.MainThread;
+
+/**
+ * Plays whole games without the screens, so nothing is rendered and there is no audio or vibration.<br>
+ * The game is the world state, each update is one tick and the game events are reported to the events of the game.
+ * Without a recording the human ship is never controlled, so each game is played until the ships are out of lives or the update limit is reached.<br>
+ * The entities still extend the entity of the framework, so the framework and the android classes need to be on the class path
+ * @author GOD
+ */
+public final class Simulation
+{
+    /**
+     * The most updates simulated for a single game (30 minutes of game time)
+     */
+    public static final int MAX_UPDATES = MainThread.UPS * 60 * 30;
+
+    /**
+     * The number of games simulated if not specified
+     */
+    private static final int DEFAULT_GAMES = 100;
+
+    /**
+     * The first seed if not specified, each game after uses the next seed
+     */
+    private static final long DEFAULT_SEED = 1L;
+
+    /**
+     * The lives option index of every game
+     */
+    private static final int LIVES = 0;
+
+    private Simulation()
+    {
+        //static methods only
+    }
+
+    /**
+     * Play a new game until it is over
+     * @param game The game, created without the screens
+     * @param seed The seed of the game
+     * @param mode The game mode option index
+     * @param lives The lives option index
+     * @return The number of updates simulated
+     * @throws Exception
+     */
+    public static int run(final Game game, final long seed, final int mode, final int lives) throws Exception
+    {
+        game.start(seed, mode, lives);
+
+        while (!game.isGameOver() && game.getTick() < MAX_UPDATES)
+        {
+            game.update();
+        }
+
+        return game.getTick();
+    }
+
+    /**
+     * Simulate a number of games and display the result of each and the overall throughput.<br>
+     * The arguments are the number of games, the game mode option index and the first seed, each is optional
+     * @param args The command line arguments
+     * @throws Exception
+     */
+    public static void main(final String[] args) throws Exception
+    {
+        final int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final int mode = (args.length > 1) ? Integer.parseInt(args[1]) : OptionsScreen.MODE_COOP;
+        final long seed = (args.length > 2) ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        final Game game = new Game();
+
+        //the total number of updates simulated
+        long updates = 0;
+
+        final long start = System.nanoTime();
+
+        try
+        {
+            System.out.println(String.format("%-12s %8s %8s %10s %8s", "Seed", "Wave", "Score", "Updates", "Result"));
+
+            for (int index = 0; index < games; index++)
+            {
+                final int count = run(game, seed + index, mode, LIVES);
+                updates += count;
+
+                System.out.println(String.format("%-12d %8d %8d %10d %8s",
+                    seed + index, game.getOverlay().getWave(), game.getHuman().getScore(), count, game.isGameOver() ? game.getResult() : "Limit"));
+            }
+        }
+        finally
+        {
+            game.dispose();
+            FieldWorkers.shutdown();
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1000000000.0;
+
+        System.out.println(String.format("%d games, %d updates in %.2f s: %.1f games/s, %.0f updates/s",
+            games, updates, seconds, games / seconds, updates / seconds));
+    }
+}
@@ -0,0 +1,234 @@
+package com.gamesbykevin.asteroids.game.command;
+
+import java.util.Arrays;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.asteroid.Asteroid;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.player.Player;
+
+/**
+ * The changes found while updating the game, applied together at the end of the update.<br>
+ * Nothing is added to or removed from a list while it is being checked, and if an entity is destroyed more than once in the same update only the first counts
+ * @author GOD
+ */
+public final class CommandBuffer implements Disposable
+{
+    /**
+     * The different changes
+     */
+    private enum Type
+    {
+        //an asteroid was shot, it breaks into smaller asteroids
+        Destroy,
+        
+        //a ship hit an asteroid
+        Crash,
+        
+        //a ship was shot by the other ship
+        Shot
+    }
+    
+    /**
+     * The points awarded for shooting the other ship
+     */
+    public static final int POINTS_SHOT = 1000;
+    
+    /**
+     * The default number of commands to allocate
+     */
+    private static final int DEFAULT_CAPACITY = 32;
+    
+    //our game reference
+    private final Game game;
+    
+    //the change of each command
+    private Type[] types;
+    
+    //the entity destroyed by each command
+    private Entity[] targets;
+    
+    //where the explosion of each command is placed
+    private Entity[] locations;
+    
+    //the player awarded the points for an asteroid, or the player of the ship destroyed
+    private Player[] players;
+    
+    //the player awarded the points for shooting the other ship
+    private Player[] winners;
+    
+    //the number of commands waiting
+    private int count = 0;
+    
+    public CommandBuffer(final Game game)
+    {
+        //store our game reference
+        this.game = game;
+        
+        this.types = new Type[DEFAULT_CAPACITY];
+        this.targets = new Entity[DEFAULT_CAPACITY];
+        this.locations = new Entity[DEFAULT_CAPACITY];
+        this.players = new Player[DEFAULT_CAPACITY];
+        this.winners = new Player[DEFAULT_CAPACITY];
+    }
+    
+    /**
+     * Destroy the asteroid once the update is complete
+     * @param asteroid The asteroid that was shot
+     * @param location Where the explosion is placed
+     * @param player The player awarded the points, may be null
+     */
+    public void destroy(final Asteroid asteroid, final Entity location, final Player player)
+    {
+        add(Type.Destroy, asteroid, location, player, null);
+    }
+    
+    /**
+     * Destroy the ship of the player once the update is complete
+     * @param player The player whose ship hit an asteroid
+     */
+    public void crash(final Player player)
+    {
+        add(Type.Crash, player.getShip(), player.getShip(), player, null);
+    }
+    
+    /**
+     * Destroy the ship of the player once the update is complete, the winner is awarded the points and all lasers are removed
+     * @param player The player whose ship was shot
+     * @param winner The player who shot the ship
+     */
+    public void shot(final Player player, final Player winner)
+    {
+        add(Type.Shot, player.getShip(), player.getShip(), player, winner);
+    }
+    
+    /**
+     * Add the command
+     * @param type The change
+     * @param target The entity destroyed
+     * @param location Where the explosion is placed
+     * @param player The player awarded the points for an asteroid, or the player of the ship destroyed
+     * @param winner The player awarded the points for shooting the other ship, may be null
+     */
+    private void add(final Type type, final Entity target, final Entity location, final Player player, final Player winner)
+    {
+        //make sure we have room
+        if (count >= types.length)
+        {
+            final int capacity = types.length * 2;
+            
+            types = Arrays.copyOf(types, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            players = Arrays.copyOf(players, capacity);
+            winners = Arrays.copyOf(winners, capacity);
+        }
+        
+        types[count] = type;
+        targets[count] = target;
+        locations[count] = location;
+        players[count] = player;
+        winners[count] = winner;
+        count++;
+    }
+    
+    /**
+     * Apply every command in the order they were added
+     * @throws Exception
+     */
+    public void commit() throws Exception
+    {
+        //do we remove all lasers once done
+        boolean clearLasers = false;
+        
+        for (int index = 0; index < count; index++)
+        {
+            final Entity target = targets[index];
+            
+            //if an earlier command already destroyed the target, it only counts once
+            if (!target.isDead())
+            {
+                //add effect to be displayed
+                game.getEffects().add(locations[index]);
+                
+                //flag the target dead
+                target.setDead(true);
+                
+                switch (types[index])
+                {
+                    case Destroy:
+                        //spawn smaller asteroids
+                        game.getAsteroids().spawnChildren((Asteroid)target);
+                        
+                        //add points to the appropriate player
+                        if (players[index] != null)
+                            players[index].addScore(((Asteroid)target).getScore());
+                        break;
+                    
+                    case Crash:
+                        //deduct a life
+                        players[index].setLives(players[index].getLives() - 1);
+                        
+                        //report the ship destroyed
+                        game.getEvents().onShipDestroyed(players[index].getShip().getType());
+                        break;
+                    
+                    case Shot:
+                        //deduct a life
+                        players[index].setLives(players[index].getLives() - 1);
+                        
+                        //add score to winner
+                        winners[index].addScore(POINTS_SHOT);
+                        
+                        //in versus mode, remove all remaining lasers
+                        clearLasers = true;
+                        break;
+                }
+            }
+        }
+        
+        clear();
+        
+        if (clearLasers)
+            game.getLasers().clear();
+    }
+    
+    /**
+     * Remove every command without applying it
+     */
+    public void clear()
+    {
+        for (int index = 0; index < count; index++)
+        {
+            types[index] = null;
+            targets[index] = null;
+            locations[index] = null;
+            players[index] = null;
+            winners[index] = null;
+        }
+        
+        count = 0;
+    }
+    
+    /**
+     * Get the number of commands
+     * @return The number of commands waiting to be applied
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+    
+    @Override
+    public void dispose()
+    {
+        clear();
+        
+        types = null;
+        targets = null;
+        locations = null;
+        players = null;
+        winners = null;
+    }
+}
@@ -10,15 +10,13 @@ import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
 import com.gamesbykevin.asteroids.entity.ship.Ship;
 import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.game.replay.Replay;
 import com.gamesbykevin.asteroids.panel.GamePanel;
 import com.gamesbykevin.asteroids.screen.OptionsScreen;
 import com.gamesbykevin.asteroids.screen.ScreenManager;
 
 import java.util.HashMap;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * This class will be our game controller
  * @author GOD
@@ -28,9 +26,27 @@ public class Controller implements IController
     //all of the buttons for the player to control
     private HashMap<Assets.ImageGameKey, Button> buttons;
     
+    /**
+     * The key of every button, in the order they are rendered.<br>
+     * We loop through this array instead of the hash map so no iterator is created each frame
+     */
+    private static final Assets.ImageGameKey[] KEYS = {
+        Assets.ImageGameKey.Pause,
+        Assets.ImageGameKey.AudioOff,
+        Assets.ImageGameKey.AudioOn,
+        Assets.ImageGameKey.Exit,
+        Assets.ImageGameKey.Fire,
+        Assets.ImageGameKey.Thrust,
+        Assets.ImageGameKey.RotateL,
+        Assets.ImageGameKey.RotateR,
+    };
+    
     //our game object reference
     private final Game game;
     
+    //the state of each game control, the index is the replay button ordinal
+    private final int[] states;
+    
     /**
      * The dimensions of the buttons that the user will see
      */
@@ -78,24 +94,24 @@ public class Controller implements IController
         //assign object reference
         this.game = game;
         
-        //create temporary list
-        List<Assets.ImageGameKey> tmp = new ArrayList<Assets.ImageGameKey>();
-
-        //add button unique key to list
-        tmp.add(Assets.ImageGameKey.Pause);
-        tmp.add(Assets.ImageGameKey.AudioOff);
-        tmp.add(Assets.ImageGameKey.AudioOn);
-        tmp.add(Assets.ImageGameKey.Exit);
-        tmp.add(Assets.ImageGameKey.Fire);
-        tmp.add(Assets.ImageGameKey.Thrust);
-        tmp.add(Assets.ImageGameKey.RotateL);
-        tmp.add(Assets.ImageGameKey.RotateR);
+        //create the game control states
+        this.states = new int[Replay.Button.values().length];
         
+        //the buttons are only needed when the game is played on the screen
+        if (game.getScreen() != null)
+        	createButtons();
+    }
+    
+    /**
+     * Create the buttons the player touches to control the game
+     */
+    private void createButtons()
+    {
         //create new list of buttons
         this.buttons = new HashMap<Assets.ImageGameKey, Button>();
         
         //add button
-        for (Assets.ImageGameKey key : tmp)
+        for (Assets.ImageGameKey key : KEYS)
         {
             this.buttons.put(key, new Button(Images.getImage(key)));
         }
@@ -120,7 +136,7 @@ public class Controller implements IController
         this.buttons.get(Assets.ImageGameKey.RotateR).setX(ROTATE_R_X);
         this.buttons.get(Assets.ImageGameKey.RotateR).setY(ROTATE_R_Y);
         
-        for (Assets.ImageGameKey key : tmp)
+        for (Assets.ImageGameKey key : KEYS)
         {
         	switch (key)
         	{
@@ -162,6 +178,10 @@ public class Controller implements IController
     @Override
     public boolean update(final int action, final float x, final float y) throws Exception
     {
+    	//there is nothing to touch without the buttons
+    	if (getButtons() == null)
+    		return false;
+    	
     	//check if there was a change
     	boolean change = false;
     	
@@ -169,8 +189,10 @@ public class Controller implements IController
     	{
 	    	case MotionEvent.ACTION_MOVE:
 	    		//check each button in our list
-	    		for (Button button : getButtons().values())
+	    		for (int index = 0; index < KEYS.length; index++)
 	    		{
+	    			final Button button = getButtons().get(KEYS[index]);
+	    			
 	    			//if the x,y location is not within the button
 	    			if (button != null && button.isVisible() && !button.contains(x, y))
 	    			{
@@ -190,8 +212,10 @@ public class Controller implements IController
 	    	case MotionEvent.ACTION_UP:
 	    	case MotionEvent.ACTION_POINTER_UP:
 	    		//check each button in our list
-	    		for (Button button : getButtons().values())
+	    		for (int index = 0; index < KEYS.length; index++)
 	    		{
+	    			final Button button = getButtons().get(KEYS[index]);
+	    			
 	    			if (button != null && button.isVisible() && button.contains(x, y))
 	    			{
 	    				if (button.isPressed())
@@ -209,8 +233,10 @@ public class Controller implements IController
 	    	case MotionEvent.ACTION_DOWN:
 	    	case MotionEvent.ACTION_POINTER_DOWN:
 	    		//check each button in our list
-	    		for (Button button : getButtons().values())
+	    		for (int index = 0; index < KEYS.length; index++)
 	    		{
+	    			final Button button = getButtons().get(KEYS[index]);
+	    			
 	    			if (button != null && button.isVisible() && button.contains(x, y))
 	    			{
 	    				//if contained within the coordinates flag pressed true
@@ -233,145 +259,210 @@ public class Controller implements IController
     @Override
     public void update() throws Exception
     {
-    	//we can't continue if the list is null
-    	if (getButtons() == null)
-    		return;
-    	
 		//get the human controlled ship, if the ship is dead null will be assigned
 		final Ship human = (getGame().getHuman().getShip() == null || getGame().getHuman().getShip().isDead()) ? null : getGame().getHuman().getShip();
     	
-    	//check each button to see what changes
-    	for (Assets.ImageGameKey key : getButtons().keySet())
+    	//without the buttons the controls only come from a recording
+    	if (getButtons() != null)
     	{
-    		//get the current button
-    		Button button = getButtons().get(key);
-    		
-    		//if this button has been pressed and released
-    		if (button.isPressed() && button.isReleased())
-    		{
-                //reset
-        		button.setPressed(false);
-        		button.setReleased(false);
-        		
-    			//determine next steps
-    			switch (key)
-    			{
-    				//stop thrusting
-	    			case Thrust:
-	    				if (human != null)
-	    				{
-	    					//flag false
-	    					human.setThrust(false);
-	    					
-	    					//stop sound
-	    					Audio.stop(Assets.AudioGameKey.Thrust);
-	    				}
-	    				break;
-	    				
-	    			//do we need to to anything for these
-	    			case Fire:
-	    				if (human != null)
-	    					getGame().getLasers().add(human);
-	    				break;
-	    				
-	    			//stop rotating if released
-	    			case RotateL:
-	    			case RotateR:
-	    				if (human != null)
-	    					human.rotateReset();
-	    				break;
-    			
-	    			case Pause:
-	                    //change the state to paused
-	                    getGame().getScreen().setState(ScreenManager.State.Paused);
-	    				break;
-	    				
-	    			case Exit:
-	                    //change to the exit confirm screen
-	                    getGame().getScreen().setState(ScreenManager.State.Exit);
-	    				break;
-	    				
-	    			case AudioOn:
-	    			case AudioOff:
-	                    //flip the audio setting
-	                    Audio.setAudioEnabled(!Audio.isAudioEnabled());
+	    	//check each button to see what changes
+	    	for (Assets.ImageGameKey key : KEYS)
+	    	{
+	    		//get the current button
+	    		Button button = getButtons().get(key);
+	    		
+	    		//if this button has been pressed and released
+	    		if (button.isPressed() && button.isReleased())
+	    		{
+	                //reset
+	        		button.setPressed(false);
+	        		button.setReleased(false);
+	        		
+	    			//determine next steps
+	    			switch (key)
+	    			{
+	    				//the game controls are applied after every button is checked
+		    			case Thrust:
+		    			case Fire:
+		    			case RotateL:
+		    			case RotateR:
+		    				setState(key, Replay.STATE_RELEASED);
+		    				break;
+	    			
+		    			case Pause:
+		                    //change the state to paused
+		                    getGame().getScreen().setState(ScreenManager.State.Paused);
+		    				break;
+		    				
+		    			case Exit:
+		                    //change to the exit confirm screen
+		                    getGame().getScreen().setState(ScreenManager.State.Exit);
+		    				break;
+		    				
+		    			case AudioOn:
+		    			case AudioOff:
+		                    //flip the audio setting
+		                    Audio.setAudioEnabled(!Audio.isAudioEnabled());
 
-	        	        //determine which button is displayed
-	        	        buttons.get(Assets.ImageGameKey.AudioOn).setVisible(Audio.isAudioEnabled());
-	        	        buttons.get(Assets.ImageGameKey.AudioOff).setVisible(!Audio.isAudioEnabled());
-	                    
-	        	        //to maintain consistency, update the options screen as well
-	        	        getGame().getScreen().getScreenOptions().setIndex(OptionsScreen.Key.Sound, Audio.isAudioEnabled() ? 0 : 1);
-	        	        
-	                    //make sure the correct button is showing
-	                    if (Audio.isAudioEnabled())
-	                    {
-	                    	//play the song again
-	                    	getGame().playSong();
-	                    }
-	                    else
-	                    {
-	                        //if audio is not enabled, stop all sound
-	                        Audio.stop();
-	                    }
-	    				break;
-    			
-	    			default:
-	    				throw new Exception("Key is not handled here: " + key.toString());
-    			}
+		        	        //determine which button is displayed
+		        	        buttons.get(Assets.ImageGameKey.AudioOn).setVisible(Audio.isAudioEnabled());
+		        	        buttons.get(Assets.ImageGameKey.AudioOff).setVisible(!Audio.isAudioEnabled());
+		                    
+		        	        //to maintain consistency, update the options screen as well
+		        	        getGame().getScreen().getScreenOptions().setIndex(OptionsScreen.Key.Sound, Audio.isAudioEnabled() ? 0 : 1);
+		        	        
+		                    //make sure the correct button is showing
+		                    if (Audio.isAudioEnabled())
+		                    {
+		                    	//play the song again
+		                    	getGame().playSong();
+		                    }
+		                    else
+		                    {
+		                        //if audio is not enabled, stop all sound
+		                        Audio.stop();
+		                    }
+		    				break;
+	    			
+		    			default:
+		    				throw new Exception("Key is not handled here: " + key.toString());
+	    			}
+	    		}
+	    		else if (button.isPressed())
+	    		{
+	    			//if the button is just pressed and not released
+	    			switch (key)
+	    			{
+	    				//the game controls are applied after every button is checked
+		    			case Thrust:
+		    			case Fire:
+		    			case RotateL:
+		    			case RotateR:
+		    				setState(key, Replay.STATE_PRESSED);
+		    				break;
+		    			
+		    			//no need to do anything for these
+		    			case Pause:
+		    			case Exit:
+		    			case AudioOn:
+		    			case AudioOff:
+		    				break;
+		    				
+		    			//no need to do anything here
+		    			default:
+		    				throw new Exception("Key is not handled here: " + key.toString());
+	    			}
+	    		}
+	    		else
+	    		{
+	    			//the button is not being used
+	    			setState(key, Replay.STATE_NONE);
+	    		}
+	    	}
+    	}
+    	
+    	//record the controls, or if playing back use the recorded controls instead
+    	if (getGame().getReplay() != null)
+    	{
+    		if (getGame().hasPlayback())
+    		{
+    			getGame().getReplay().play(getGame().getTick(), states);
     		}
-    		else if (button.isPressed())
+    		else
     		{
-    			//if the button is just pressed and not released
-    			switch (key)
-    			{
-    				//start thrusting
-	    			case Thrust:
-	    				if (human != null)
-	    				{
-	    					//if we weren't thrusting previous
-	    					if (!human.hasThrust())
-	    						Audio.play(Assets.AudioGameKey.Thrust, true);
-	    					
-	    					//flag thrusting true
-	    					human.setThrust(true);
-	    				}
-	    				break;
-	    				
-	    			//don't do anything here
-	    			case Fire:
-	    				break;
-	    				
-	    			//set the rotate speed
-	    			case RotateL:
-	    				if (human != null)
-	    					human.rotateLeft();
-	    				break;
-	    				
-	    			//set the rotate speed
-	    			case RotateR:
-	    				if (human != null)
-	    					human.rotateRight();
-	    				break;
-	    			
-	    			//no need to do anything for these
-	    			case Pause:
-	    			case Exit:
-	    			case AudioOn:
-	    			case AudioOff:
-	    				break;
-	    				
-	    			//no need to do anything here
-	    			default:
-	    				throw new Exception("Key is not handled here: " + key.toString());
-    			}
+    			getGame().getReplay().record(getGame().getTick(), states);
     		}
     	}
+    	
+    	//apply the game controls, we can't do anything if the ship is dead
+    	if (human != null)
+    		apply(human);
+    }
+    
+    /**
+     * Assign the state of a game control
+     * @param key The key of the button
+     * @param state The state of the button (none, pressed, released)
+     */
+    private void setState(final Assets.ImageGameKey key, final int state)
+    {
+    	switch (key)
+    	{
+    		case Fire:
+    			states[Replay.Button.Fire.ordinal()] = state;
+    			break;
+    			
+    		case Thrust:
+    			states[Replay.Button.Thrust.ordinal()] = state;
+    			break;
+    			
+    		case RotateL:
+    			states[Replay.Button.RotateL.ordinal()] = state;
+    			break;
+    			
+    		case RotateR:
+    			states[Replay.Button.RotateR.ordinal()] = state;
+    			break;
+    			
+    		//the other buttons are not game controls
+    		default:
+    			break;
+    	}
+    }
+    
+    /**
+     * Apply the game controls to the ship.<br>
+     * Released buttons are handled before pressed buttons, so the result is the same every time
+     * @param human The human controlled ship
+     * @throws Exception
+     */
+    private void apply(final Ship human) throws Exception
+    {
+    	//stop thrusting
+    	if (states[Replay.Button.Thrust.ordinal()] == Replay.STATE_RELEASED)
+    	{
+			//flag false
+			human.setThrust(false);
+			
+			//report the thrust stopped
+			getGame().getEvents().onThrust(false);
+    	}
+    	
+    	//fire when released
+    	if (states[Replay.Button.Fire.ordinal()] == Replay.STATE_RELEASED)
+    		getGame().getLasers().add(human);
+    	
+    	//stop rotating if released
+    	if (states[Replay.Button.RotateL.ordinal()] == Replay.STATE_RELEASED || states[Replay.Button.RotateR.ordinal()] == Replay.STATE_RELEASED)
+    		human.rotateReset();
+    	
+    	//start thrusting
+    	if (states[Replay.Button.Thrust.ordinal()] == Replay.STATE_PRESSED)
+    	{
+			//if we weren't thrusting previous, report the thrust started
+			if (!human.hasThrust())
+				getGame().getEvents().onThrust(true);
+			
+			//flag thrusting true
+			human.setThrust(true);
+    	}
+    	
+    	//set the rotate speed
+    	if (states[Replay.Button.RotateL.ordinal()] == Replay.STATE_PRESSED)
+    		human.rotateLeft();
+    	if (states[Replay.Button.RotateR.ordinal()] == Replay.STATE_PRESSED)
+    		human.rotateRight();
     }
     
     @Override
     public void reset()
     {
+        //reset the game controls
+        for (int index = 0; index < states.length; index++)
+        {
+        	states[index] = Replay.STATE_NONE;
+        }
+        
     	if (getButtons() != null)
     	{
 	        //determine which button is displayed
@@ -379,8 +470,10 @@ public class Controller implements IController
     		getButtons().get(Assets.ImageGameKey.AudioOff).setVisible(!Audio.isAudioEnabled());
 	        
 	        //reset all buttons
-	        for (Button button : getButtons().values())
+	        for (int index = 0; index < KEYS.length; index++)
 	        {
+	        	final Button button = getButtons().get(KEYS[index]);
+	        	
 	        	if (button != null)
 	        	{
 	        		button.setPressed(false);
@@ -423,11 +516,11 @@ public class Controller implements IController
         //draw the buttons
         if (getButtons() != null)
         {
-        	//check each key in the hash map
-        	for (Assets.ImageGameKey key : getButtons().keySet())
+        	//check each key
+        	for (int index = 0; index < KEYS.length; index++)
         	{
         		//get the current button
-        		final Button button = getButtons().get(key);
+        		final Button button = getButtons().get(KEYS[index]);
         		
         		//don't continue if button does not exist
         		if (button == null)
@@ -0,0 +1,139 @@
+package com.gamesbykevin.asteroids.game.event;
+
+import java.util.Random;
+
+import com.gamesbykevin.androidframework.resources.Audio;
+import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.ship.Ship;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.screen.OptionsScreen;
+
+import android.content.Context;
+import android.os.Vibrator;
+
+/**
+ * Plays the sound effects and vibrates the device for the game events
+ * @author GOD
+ */
+public class Events implements IEvents
+{
+    /**
+     * The length to vibrate the phone
+     */
+    public static final long VIBRATION_DURATION = 500;
+    
+    //our game reference
+    private final Game game;
+    
+    //used to pick a sound effect, separate from the game so the sound doesn't change the game
+    private final Random random;
+    
+    public Events(final Game game)
+    {
+        //store our game reference
+        this.game = game;
+        
+        //create our random object
+        this.random = new Random(System.nanoTime());
+    }
+    
+    @Override
+    public void onLaserFired(final Ship.Type type)
+    {
+        //play random sound effect
+        switch (random.nextInt(3))
+        {
+            case 0:
+            default:
+                Audio.play(Assets.AudioGameKey.Laser1);
+                break;
+                
+            case 1:
+                Audio.play(Assets.AudioGameKey.Laser2);
+                break;
+                
+            case 2:
+                Audio.play(Assets.AudioGameKey.Laser3);
+                break;
+        }
+    }
+    
+    @Override
+    public void onThrust(final boolean thrust)
+    {
+        if (thrust)
+        {
+            Audio.play(Assets.AudioGameKey.Thrust, true);
+        }
+        else
+        {
+            Audio.stop(Assets.AudioGameKey.Thrust);
+        }
+    }
+    
+    @Override
+    public void onExplosion(final Entity entity)
+    {
+        //play random sound effect
+        switch (random.nextInt(3))
+        {
+            case 0:
+            default:
+                Audio.play(Assets.AudioGameKey.Explosion1);
+                break;
+                
+            case 1:
+                Audio.play(Assets.AudioGameKey.Explosion2);
+                break;
+                
+            case 2:
+                Audio.play(Assets.AudioGameKey.Explosion3);
+                break;
+        }
+    }
+    
+    @Override
+    public void onShipDestroyed(final Ship.Type type)
+    {
+        //if this player is human, we will vibrate
+        if (type == Ship.Type.ShipHuman)
+            vibrate();
+    }
+    
+    @Override
+    public void onWaveComplete(final int wave)
+    {
+        vibrate();
+    }
+    
+    @Override
+    public void onShipsReset()
+    {
+        //stop thrust sound
+        Audio.stop(Assets.AudioGameKey.Thrust);
+    }
+    
+    @Override
+    public void onGameOver()
+    {
+        //play game over sound
+        Audio.play(Assets.AudioGameKey.Gameover);
+    }
+    
+    /**
+     * Vibrate the device, if the vibrate option is enabled
+     */
+    private void vibrate()
+    {
+        //make sure vibrate option is enabled
+        if (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Vibrate) == 0)
+        {
+            //get our vibrate object
+            Vibrator v = (Vibrator) game.getScreen().getPanel().getActivity().getSystemService(Context.VIBRATOR_SERVICE);
+            
+            //vibrate for a specified amount of milliseconds
+            v.vibrate(VIBRATION_DURATION);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.gamesbykevin.asteroids.game.event;
+
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.ship.Ship;
+
+/**
+ * The events the game rules report, so audio and haptics can be handled outside of the simulation
+ * @author GOD
+ */
+public interface IEvents
+{
+    /**
+     * A laser was fired
+     * @param type The type of ship that fired the laser
+     */
+    public void onLaserFired(final Ship.Type type);
+    
+    /**
+     * The human ship started or stopped thrusting
+     * @param thrust true if the thrust started, false if it stopped
+     */
+    public void onThrust(final boolean thrust);
+    
+    /**
+     * An explosion was added
+     * @param entity The entity where the explosion is
+     */
+    public void onExplosion(final Entity entity);
+    
+    /**
+     * A ship was destroyed
+     * @param type The type of ship destroyed
+     */
+    public void onShipDestroyed(final Ship.Type type);
+    
+    /**
+     * Every asteroid in the wave has been destroyed
+     * @param wave The wave that was completed
+     */
+    public void onWaveComplete(final int wave);
+    
+    /**
+     * The ships have been placed back in play
+     */
+    public void onShipsReset();
+    
+    /**
+     * The game is over
+     */
+    public void onGameOver();
+}
@@ -0,0 +1,43 @@
+package com.gamesbykevin.asteroids.game.replay;
+
+import java.io.IOException;
+
+/**
+ * Where the recordings are kept.<br>
+ * The game only hands over its recording, the storage is assigned by the screens so the game rules don't depend on the device
+ * @author GOD
+ */
+public interface IReplayStore
+{
+    /**
+     * Keeps nothing, used when the game is simulated without the screens
+     */
+    public static final IReplayStore NONE = new IReplayStore()
+    {
+        @Override
+        public void save(final Replay replay)
+        {
+        }
+        
+        @Override
+        public Replay load() throws IOException
+        {
+            throw new IOException("No recordings are kept");
+        }
+    };
+    
+    /**
+     * Keep the recording, it replaces the previous recording.<br>
+     * The recording is copied before this returns, so the game can continue recording
+     * @param replay The recording
+     * @throws IOException
+     */
+    public void save(final Replay replay) throws IOException;
+    
+    /**
+     * Load the most recent recording
+     * @return The recording
+     * @throws IOException if there is no recording, or it can't be read
+     */
+    public Replay load() throws IOException;
+}
@@ -0,0 +1,139 @@
+package com.gamesbykevin.asteroids.game.replay;
+
+import java.io.IOException;
+
+import com.gamesbykevin.asteroids.entity.Entity;
+import com.gamesbykevin.asteroids.entity.ship.Ship;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.game.event.IEvents;
+
+/**
+ * Play back a recording, either in real time or as fast as possible without rendering
+ * @author GOD
+ */
+public final class Playback
+{
+    /**
+     * Do we play back the most recent recording instead of starting a new game?<br>
+     * Used to watch a game that was reported, the recording comes from the replay store of the game
+     */
+    public static final boolean ENABLED = false;
+    
+    /**
+     * Ignores every event, so there is no audio or vibration.<br>
+     * Used when fast forwarding, and when the simulation is measured
+     */
+    public static final IEvents SILENT = new IEvents()
+    {
+        @Override
+        public void onLaserFired(final Ship.Type type)
+        {
+        }
+        
+        @Override
+        public void onThrust(final boolean thrust)
+        {
+        }
+        
+        @Override
+        public void onExplosion(final Entity entity)
+        {
+        }
+        
+        @Override
+        public void onShipDestroyed(final Ship.Type type)
+        {
+        }
+        
+        @Override
+        public void onWaveComplete(final int wave)
+        {
+        }
+        
+        @Override
+        public void onShipsReset()
+        {
+        }
+        
+        @Override
+        public void onGameOver()
+        {
+        }
+    };
+    
+    private Playback()
+    {
+        //static methods only
+    }
+    
+    /**
+     * Play the recording in real time.<br>
+     * The game will start over and the controls will come from the recording, it is then updated and rendered as normal
+     * @param game The game that will play the recording
+     * @param replay The recording
+     * @throws Exception
+     */
+    public static void play(final Game game, final Replay replay) throws Exception
+    {
+        game.play(replay);
+    }
+    
+    /**
+     * Play the most recent recording in real time
+     * @param game The game that will play the recording, the recording is loaded from the replay store of the game
+     * @return true if the recording is being played, false if there is no recording to play
+     * @throws Exception
+     */
+    public static boolean playLatest(final Game game) throws Exception
+    {
+        final Replay replay;
+        
+        try
+        {
+            replay = game.getReplayStore().load();
+        }
+        catch (IOException e)
+        {
+            //there is no recording yet, or it can't be read
+            return false;
+        }
+        
+        play(game, replay);
+        return true;
+    }
+    
+    /**
+     * Simulate the whole recording as fast as possible without rendering
+     * @param game The game that will play the recording
+     * @param replay The recording
+     * @return The number of updates simulated
+     * @throws Exception if the game ended before the recording, the recording no longer matches the game rules
+     */
+    public static int fastForward(final Game game, final Replay replay) throws Exception
+    {
+        //we don't want to hear the recording
+        final IEvents events = game.getEvents();
+        game.setEvents(SILENT);
+        
+        try
+        {
+            game.play(replay);
+            
+            //update until the end of the recording, or until the game is over
+            while (!replay.isFinished(game.getTick()) && !game.isGameOver())
+            {
+                game.update();
+            }
+            
+            //a recording of an older version of the game can end differently
+            if (!replay.isFinished(game.getTick()))
+                throw new Exception("Replay desync: the game ended at update " + game.getTick() + ", the recording ends at update " + replay.getEnd());
+        }
+        finally
+        {
+            game.setEvents(events);
+        }
+        
+        return game.getTick();
+    }
+}
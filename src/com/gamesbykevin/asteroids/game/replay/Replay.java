@@ -0,0 +1,335 @@
+package com.gamesbykevin.asteroids.game.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A recording of a game: the seed, the options and every change of the game controls.<br>
+ * Since the game only depends on the seed and the input, playing back the recording produces the same game
+ * @author GOD
+ */
+public final class Replay
+{
+    /**
+     * The game controls that are recorded
+     */
+    public enum Button
+    {
+        Fire, Thrust, RotateL, RotateR
+    }
+    
+    /**
+     * The button is not pressed
+     */
+    public static final int STATE_NONE = 0;
+    
+    /**
+     * The button is held down
+     */
+    public static final int STATE_PRESSED = 1;
+    
+    /**
+     * The button was released during this update
+     */
+    public static final int STATE_RELEASED = 2;
+    
+    /**
+     * Identifies the file as a replay
+     */
+    private static final int MAGIC = 0x41535452;
+    
+    /**
+     * The version of the file format
+     */
+    private static final int VERSION = 1;
+    
+    /**
+     * Marks the end of the recorded changes
+     */
+    private static final int END = 0xFF;
+    
+    /**
+     * The default number of changes we have room for
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    //the seed of the game
+    private final long seed;
+    
+    //the game mode and lives option index
+    private final int mode, lives;
+    
+    //the update each change happened, and the button and state of the change
+    private int[] ticks;
+    private byte[] codes;
+    
+    //the number of changes
+    private int count = 0;
+    
+    //the last update of the game
+    private int end = 0;
+    
+    //the next change to play back
+    private int cursor = 0;
+    
+    //the state of each button as last recorded
+    private final int[] states;
+    
+    /**
+     * Create a new recording
+     * @param seed The seed of the game
+     * @param mode The game mode option index
+     * @param lives The lives option index
+     */
+    public Replay(final long seed, final int mode, final int lives)
+    {
+        this.seed = seed;
+        this.mode = mode;
+        this.lives = lives;
+        this.ticks = new int[DEFAULT_CAPACITY];
+        this.codes = new byte[DEFAULT_CAPACITY];
+        this.states = new int[Button.values().length];
+    }
+    
+    /**
+     * Get the seed
+     * @return The seed of the game
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+    
+    /**
+     * Get the mode
+     * @return The game mode option index
+     */
+    public int getMode()
+    {
+        return this.mode;
+    }
+    
+    /**
+     * Get the lives
+     * @return The lives option index
+     */
+    public int getLives()
+    {
+        return this.lives;
+    }
+    
+    /**
+     * Get the end
+     * @return The last update of the game
+     */
+    public int getEnd()
+    {
+        return this.end;
+    }
+    
+    /**
+     * Get the count
+     * @return The number of changes recorded
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Record the state of the buttons, only the buttons that changed are stored
+     * @param tick The current update of the game
+     * @param states The state of each button, the index is the button ordinal
+     */
+    public void record(final int tick, final int[] states)
+    {
+        for (int index = 0; index < states.length; index++)
+        {
+            if (states[index] != this.states[index])
+            {
+                add(tick, index, states[index]);
+                this.states[index] = states[index];
+            }
+        }
+        
+        //the game has lasted at least this long
+        if (tick > end)
+            end = tick;
+    }
+    
+    /**
+     * Start playing back from the beginning
+     */
+    public void rewind()
+    {
+        this.cursor = 0;
+        
+        for (int index = 0; index < states.length; index++)
+        {
+            states[index] = STATE_NONE;
+        }
+    }
+    
+    /**
+     * Apply every recorded change up to the current update
+     * @param tick The current update of the game
+     * @param states Will contain the state of each button at the current update
+     */
+    public void play(final int tick, final int[] states)
+    {
+        while (cursor < count && ticks[cursor] <= tick)
+        {
+            this.states[codes[cursor] >> 2] = codes[cursor] & 0x03;
+            cursor++;
+        }
+        
+        System.arraycopy(this.states, 0, states, 0, states.length);
+    }
+    
+    /**
+     * Is the playback finished?
+     * @param tick The current update of the game
+     * @return true if every update of the recording has been played, false otherwise
+     */
+    public boolean isFinished(final int tick)
+    {
+        return (tick >= end);
+    }
+    
+    /**
+     * Add a change
+     * @param tick The update the change happened
+     * @param button The button ordinal
+     * @param state The new state of the button
+     */
+    private void add(final int tick, final int button, final int state)
+    {
+        //make sure we have room
+        if (count >= ticks.length)
+        {
+            final int[] tmpTicks = new int[ticks.length * 2];
+            System.arraycopy(ticks, 0, tmpTicks, 0, count);
+            ticks = tmpTicks;
+            
+            final byte[] tmpCodes = new byte[codes.length * 2];
+            System.arraycopy(codes, 0, tmpCodes, 0, count);
+            codes = tmpCodes;
+        }
+        
+        ticks[count] = tick;
+        codes[count] = (byte)((button << 2) | state);
+        count++;
+    }
+    
+    /**
+     * Write the recording.<br>
+     * Each change is stored as the number of updates since the previous change followed by the button and state
+     * @param output Where the recording is written
+     * @throws IOException
+     */
+    public void write(final OutputStream output) throws IOException
+    {
+        final DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(output));
+        
+        stream.writeInt(MAGIC);
+        stream.writeByte(VERSION);
+        stream.writeLong(getSeed());
+        stream.writeByte(getMode());
+        stream.writeByte(getLives());
+        stream.writeInt(getEnd());
+        
+        int previous = 0;
+        
+        for (int index = 0; index < count; index++)
+        {
+            writeVariable(stream, ticks[index] - previous);
+            stream.writeByte(codes[index]);
+            previous = ticks[index];
+        }
+        
+        //mark the end
+        writeVariable(stream, 0);
+        stream.writeByte(END);
+        stream.flush();
+    }
+    
+    /**
+     * Read a recording
+     * @param input Where the recording is read from
+     * @return The recording
+     * @throws IOException if the content is not a recording
+     */
+    public static Replay read(final InputStream input) throws IOException
+    {
+        final DataInputStream stream = new DataInputStream(new BufferedInputStream(input));
+        
+        if (stream.readInt() != MAGIC)
+            throw new IOException("Not a replay");
+        if (stream.readByte() != VERSION)
+            throw new IOException("Replay version not supported");
+        
+        final Replay replay = new Replay(stream.readLong(), stream.readByte(), stream.readByte());
+        replay.end = stream.readInt();
+        
+        int tick = 0;
+        
+        while (true)
+        {
+            tick += readVariable(stream);
+            
+            final int code = stream.readUnsignedByte();
+            
+            if (code == END)
+                break;
+            
+            replay.add(tick, code >> 2, code & 0x03);
+        }
+        
+        return replay;
+    }
+    
+    /**
+     * Write a positive value using as few bytes as possible, 7 bits per byte
+     * @param stream Where we write
+     * @param value The value to write
+     * @throws IOException
+     */
+    private static void writeVariable(final DataOutputStream stream, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            stream.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        
+        stream.writeByte(value);
+    }
+    
+    /**
+     * Read a value written by writeVariable
+     * @param stream Where we read
+     * @return The value
+     * @throws IOException
+     */
+    private static int readVariable(final DataInputStream stream) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        int current;
+        
+        do
+        {
+            current = stream.readUnsignedByte();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((current & 0x80) != 0);
+        
+        return value;
+    }
+}
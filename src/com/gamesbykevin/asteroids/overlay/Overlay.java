@@ -1,7 +1,6 @@
 package com.gamesbykevin.asteroids.overlay;
 
-import com.gamesbykevin.androidframework.resources.Audio;
-import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.common.Rng;
 import com.gamesbykevin.asteroids.entity.Entity;
 import com.gamesbykevin.asteroids.entity.asteroid.Asteroid;
 import com.gamesbykevin.asteroids.entity.ship.Ship;
@@ -9,12 +8,10 @@ import com.gamesbykevin.asteroids.game.Game;
 import com.gamesbykevin.asteroids.panel.GamePanel;
 import com.gamesbykevin.asteroids.screen.OptionsScreen;
 import com.gamesbykevin.asteroids.screen.ScreenManager;
-import com.gamesbykevin.asteroids.screen.ScreenManager.State;
+import com.gamesbykevin.asteroids.thread.MainThread;
 
-import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Rect;
-import android.os.Vibrator;
 
 public class Overlay implements IOverlay 
 {
@@ -34,23 +31,21 @@ public class Overlay implements IOverlay
 	 */
 	private static final long TRANSITION_DELAY = 1500L;
 	
-    /**
-     * The length to vibrate the phone
-     */
-    public static final long VIBRATION_DURATION = 500;
-	
 	//keep track of the time elapsed (milliseconds)
 	private long elapsed;
 	
-	//keep track of current time passed (milliseconds)
-	private long time;
-	
 	//keep track of the wave starting at 1
 	private int wave = 1;
 	
 	//the message we render on screen
 	private String message;
 	
+	//temporary rectangle used to calculate coordinates
+	private Rect tmp;
+	
+	//do we need to calculate where the message is rendered
+	private boolean position = true;
+	
 	public Overlay(final Game game) 
 	{
 		//store our game reference
@@ -95,8 +90,18 @@ public class Overlay implements IOverlay
 	{
 		this.message = message;
 		
-        //create temporary rectangle
-        Rect tmp = new Rect();
+		//the message will be measured when rendered, so the game update doesn't need the paint
+		this.position = true;
+	}
+	
+	/**
+	 * Calculate the coordinates where we render the message
+	 */
+	private void measureMessage()
+	{
+        //create object if null
+        if (tmp == null)
+        	tmp = new Rect();
         
         //get the rectangle around the message
         game.getScreen().getPaint().getTextBounds(message, 0, message.length(), tmp);
@@ -104,6 +109,9 @@ public class Overlay implements IOverlay
         //calculate the position of the message
         messageX = (GamePanel.WIDTH / 2) - (tmp.width() / 2);
         messageY = (GamePanel.HEIGHT / 2) - (tmp.height() / 2);
+        
+        //the message is now positioned
+        this.position = false;
 	}
 	
 	/**
@@ -118,14 +126,11 @@ public class Overlay implements IOverlay
 	@Override
 	public final void reset() 
 	{
-		//reset the time to the current
-		this.time = System.currentTimeMillis();
-		
 		//reset elapsed
 		this.elapsed = 0;
 		
 		//assign the appropriate message
-		switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+		switch (game.getMode())
 		{
 			//classic, coop
 			case OptionsScreen.MODE_CLASSIC:
@@ -143,7 +148,7 @@ public class Overlay implements IOverlay
 	@Override
 	public void dispose() 
 	{
-		//no need to recycle anything here
+		tmp = null;
 	}
 
 	@Override
@@ -152,17 +157,14 @@ public class Overlay implements IOverlay
 		//check if the transition is yet complete
 		final boolean complete = isComplete(); 
 		
-		//add the time elapsed
-		elapsed += (System.currentTimeMillis() - time);
-		
-		//make the time current
-		time = System.currentTimeMillis();
+		//add the time of this update
+		elapsed += MainThread.TICK_DURATION;
 		
 		//if previously not completed, but now am complete
 		if (!complete && isComplete())
 		{
 			//determine what to do next by the game mode
-			switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+			switch (game.getMode())
 			{
 				//classic, coop
 				case OptionsScreen.MODE_CLASSIC:
@@ -176,7 +178,7 @@ public class Overlay implements IOverlay
 						for (int count = 0; count < getWave(); count++)
 						{
 							//pick a random type of asteroid
-							switch (GamePanel.RANDOM.nextInt(8))
+							switch (game.getRandom(Rng.Stream.Spawn).nextInt(8))
 							{
 								case 0:
 								default:
@@ -234,7 +236,7 @@ public class Overlay implements IOverlay
 		else if (isComplete())
 		{
 			//determine what to do next by the game mode
-			switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+			switch (game.getMode())
 			{
 				//classic, coop
 				case OptionsScreen.MODE_CLASSIC:
@@ -244,15 +246,8 @@ public class Overlay implements IOverlay
 					//if there are no asteroids, the wave is complete
 					if (game.getAsteroids().get().isEmpty())
 					{
-		        		//make sure vibrate is enabled
-		        		if (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Vibrate) == 0)
-		        		{
-			        		//get our vibrate object
-			        		Vibrator v = (Vibrator) game.getScreen().getPanel().getActivity().getSystemService(Context.VIBRATOR_SERVICE);
-			        		 
-							//vibrate for a specified amount of milliseconds
-							v.vibrate(VIBRATION_DURATION);
-		        		}
+						//report the wave complete
+						game.getEvents().onWaveComplete(getWave());
 						
 						//increase the wave
 						setWave(getWave() + 1);
@@ -285,13 +280,13 @@ public class Overlay implements IOverlay
 						if (dead)
 						{
 							//remove all lasers
-							game.getLasers().get().clear();
+							game.getLasers().clear();
 							
 							//stop ships from moving
 							stopVelocity();
 							
 							//remove existing lasers
-							game.getLasers().get().clear();
+							game.getLasers().clear();
 							
 							//check if the game is over
 							checkGameOver();
@@ -309,7 +304,7 @@ public class Overlay implements IOverlay
 								//place existing asteroids in the corner
 								for (Asteroid asteroid : game.getAsteroids().get())
 								{
-									placeEntity(asteroid, 0, 0);
+									game.getAsteroids().setLocation(asteroid, 0, 0);
 								}
 								
 								//place ships back in the middle of the screen
@@ -333,13 +328,13 @@ public class Overlay implements IOverlay
 					if (human.isDead() || cpu.isDead())
 					{
 						//remove all lasers
-						game.getLasers().get().clear();
+						game.getLasers().clear();
 						
 						//stop ships from moving
 						stopVelocity();
 						
 						//remove existing lasers
-						game.getLasers().get().clear();
+						game.getLasers().clear();
 						
 						//check if the game is over
 						checkGameOver();
@@ -368,11 +363,11 @@ public class Overlay implements IOverlay
 	
 	/**
 	 * Is the game over?
-	 * @return true if the state is game over, false otherwise
+	 * @return true if the game has ended, false otherwise
 	 */
 	private boolean hasGameOver()
 	{
-		return (game.getScreen().getState() == ScreenManager.State.GameOver);
+		return game.isGameOver();
 	}
 	
 	/**
@@ -381,7 +376,7 @@ public class Overlay implements IOverlay
 	private void checkGameOver()
 	{
 		//determine what to do next by the game mode
-		switch (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Mode))
+		switch (game.getMode())
 		{
 			//classic
 			case OptionsScreen.MODE_CLASSIC:
@@ -389,23 +384,8 @@ public class Overlay implements IOverlay
 				//if the human has no move lives
 				if (game.getHuman().getLives() <= 0)
 				{
-					//flag game over
-					game.getScreen().setState(State.GameOver);
-					
-					//set message
-					game.getScreen().getScreenGameover().setMessage(
-						"Game Over", 
-						"Score: " + game.getHuman().getScore()
-					);
-					
-					//remove any explosions
-					game.getEffects().get().clear();
-					
-					//remove any existing lasers
-					game.getLasers().get().clear();
-					
-					//play game over sound
-					Audio.play(Assets.AudioGameKey.Gameover);
+					//flag game over, the screens will display the result
+					game.setGameOver("Game Over");
 				}
 				break;
 		
@@ -415,23 +395,8 @@ public class Overlay implements IOverlay
 				//if neither player has any lives
 				if (game.getHuman().getLives() <= 0 && game.getCpu().getLives() <= 0)
 				{
-					//flag game over
-					game.getScreen().setState(State.GameOver);
-					
-					//set message
-					game.getScreen().getScreenGameover().setMessage(
-						"Game Over", 
-						"Score: " + game.getHuman().getScore()
-					);
-					
-					//remove any explosions
-					game.getEffects().get().clear();
-					
-					//remove any existing lasers
-					game.getLasers().get().clear();
-					
-					//play game over sound
-					Audio.play(Assets.AudioGameKey.Gameover);
+					//flag game over, the screens will display the result
+					game.setGameOver("Game Over");
 				}
 				break;
 				
@@ -441,43 +406,13 @@ public class Overlay implements IOverlay
 				//if anyone lost all their lives, set the message appropriately
 				if (game.getHuman().getLives() <= 0)
 				{
-					//flag game over
-					game.getScreen().setState(State.GameOver);
-					
-					//set message
-					game.getScreen().getScreenGameover().setMessage(
-						"You lose", 
-						"Score: " + game.getHuman().getScore()
-					);
-					
-					//remove any explosions
-					game.getEffects().get().clear();
-					
-					//remove any existing lasers
-					game.getLasers().get().clear();
-					
-					//play game over sound
-					Audio.play(Assets.AudioGameKey.Gameover);
+					//flag game over, the screens will display the result
+					game.setGameOver("You lose");
 				}
 				else if (game.getCpu().getLives() <= 0)
 				{
-					//flag game over
-					game.getScreen().setState(State.GameOver);
-					
-					//set message
-					game.getScreen().getScreenGameover().setMessage(
-						"You win", 
-						"Score: " + game.getHuman().getScore()
-					);
-					
-					//remove any explosions
-					game.getEffects().get().clear();
-					
-					//remove any existing lasers
-					game.getLasers().get().clear();
-					
-					//play game over sound
-					Audio.play(Assets.AudioGameKey.Gameover);
+					//flag game over, the screens will display the result
+					game.setGameOver("You win");
 				}
 				break;
 		}
@@ -495,8 +430,8 @@ public class Overlay implements IOverlay
 		if (game.getCpu() != null)
 			game.getCpu().getShip().setDead(false);
 		
-		//stop thrust sound
-		Audio.stop(Assets.AudioGameKey.Thrust);
+		//report the ships are back in play
+		game.getEvents().onShipsReset();
 	}
 	
 	/**
@@ -551,7 +486,7 @@ public class Overlay implements IOverlay
 	 */
 	private void placeOppositeEnds()
 	{
-		if (GamePanel.RANDOM.nextBoolean())
+		if (game.getRandom(Rng.Stream.Spawn).nextBoolean())
 		{
 			placeEntity(game.getHuman().getShip(), 0, 0);
 			placeEntity(game.getCpu().getShip(), GamePanel.WIDTH - game.getCpu().getShip().getHeight(), GamePanel.HEIGHT - game.getCpu().getShip().getHeight());
@@ -587,6 +522,9 @@ public class Overlay implements IOverlay
 			//reset the velocity
 			entity.setDX(dx);
 			entity.setDY(dy);
+			
+			//this was a placement, so we don't want to render the move between locations
+			entity.resetInterpolation();
 		}
 		catch (Exception e)
 		{
@@ -598,11 +536,15 @@ public class Overlay implements IOverlay
 	public void render(Canvas canvas) throws Exception 
 	{
 		//only render if the transition is not yet complete and the game is not over
-		if (!isComplete() && game.getScreen().getState() != State.GameOver)
+		if (!isComplete() && !hasGameOver())
 		{
 			//darken background
 			ScreenManager.darkenBackground(canvas, DARKEN_BACKGROUND_ALPHA);
 			
+			//make sure the message is positioned
+			if (position)
+				measureMessage();
+			
 			//render message
 			canvas.drawText(getMessage(), messageX, messageY, game.getScreen().getPaint());
 		}
@@ -0,0 +1,100 @@
+package com.gamesbykevin.asteroids.panel;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+
+/**
+ * An offscreen image the whole game is rendered to at a fixed resolution.<br>
+ * The image is then copied to the screen once with filtering, instead of scaling every image and text drawn
+ * @author GOD
+ */
+public final class FrameBuffer implements Disposable
+{
+    /**
+     * Do we render to the frame buffer, if false everything is scaled when drawn to the screen.<br>
+     * Off by default so every device keeps the original render path until the frame buffer is measured on it
+     */
+    public static final boolean ENABLED = false;
+    
+    /**
+     * The resolution of the frame buffer compared to the default dimensions.<br>
+     * Use a smaller value on weak devices so there are fewer pixels to draw
+     */
+    public static final float SCALE = 1.0f;
+    
+    //the offscreen image
+    private Bitmap bitmap;
+    
+    //the canvas used to draw on the offscreen image
+    private Canvas canvas;
+    
+    //used to filter the image when copied to the screen
+    private final Paint paint;
+    
+    //the area of the image copied, and where it is drawn on the screen
+    private final Rect source, destination;
+    
+    //the scale applied to the canvas
+    private final float scale;
+    
+    /**
+     * Create the frame buffer
+     * @param scale The resolution compared to the default dimensions (1.0 = 800x480)
+     */
+    public FrameBuffer(final float scale)
+    {
+        this.scale = scale;
+        
+        //the dimensions of the offscreen image
+        final int width = Math.round(GamePanel.WIDTH * scale);
+        final int height = Math.round(GamePanel.HEIGHT * scale);
+        
+        this.bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        this.canvas = new Canvas(bitmap);
+        this.paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        this.source = new Rect(0, 0, width, height);
+        this.destination = new Rect();
+    }
+    
+    /**
+     * Start drawing a frame
+     * @return The canvas to draw on, the coordinates are the default dimensions
+     */
+    public Canvas begin()
+    {
+        //scale the default dimensions to the size of the image
+        canvas.save();
+        canvas.scale(scale, scale);
+        
+        return canvas;
+    }
+    
+    /**
+     * Finish the frame and copy it to the screen
+     * @param screen The canvas of the screen, the image will fill it
+     */
+    public void end(final Canvas screen)
+    {
+        canvas.restore();
+        
+        //stretch the image to the screen
+        destination.set(0, 0, screen.getWidth(), screen.getHeight());
+        screen.drawBitmap(bitmap, source, destination, paint);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        canvas = null;
+        
+        if (bitmap != null)
+        {
+            bitmap.recycle();
+            bitmap = null;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.gamesbykevin.asteroids.panel;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import android.graphics.Canvas;
+import android.graphics.Picture;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
@@ -9,27 +12,32 @@ import com.gamesbykevin.androidframework.resources.Audio;
 import com.gamesbykevin.androidframework.resources.Disposable;
 import com.gamesbykevin.asteroids.MainActivity;
 import com.gamesbykevin.asteroids.assets.Assets;
+import com.gamesbykevin.asteroids.benchmark.AllocationBudget;
+import com.gamesbykevin.asteroids.benchmark.Benchmarks;
+import com.gamesbykevin.asteroids.entity.asteroid.FieldWorkers;
+import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.profiler.Profiler;
+import com.gamesbykevin.asteroids.profiler.Profiler.Section;
+import com.gamesbykevin.asteroids.profiler.TraceWriter;
 import com.gamesbykevin.asteroids.screen.ScreenManager;
 import com.gamesbykevin.asteroids.screen.ScreenManager.State;
 import com.gamesbykevin.asteroids.thread.MainThread;
 
-import java.util.Random;
-
 /**
  * Game Panel class
  * @author GOD
  */
 public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Disposable
 {
-    /**
-     * Our random object used to make random decisions
-     */
-    public static Random RANDOM = new Random(System.nanoTime());
-    
     //default dimensions of window for this game
     public static final int WIDTH = 800;
     public static final int HEIGHT = 480;
     
+    /**
+     * The number of fingers touching the screen at once that will turn the profiler on or off
+     */
+    private static final int PROFILER_POINTERS = 3;
+    
     //the reference to our activity
     private final MainActivity activity;
     
@@ -42,9 +50,21 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     //did motion event down happen
     private boolean down = false;
     
+    //the touch events waiting for the game thread
+    private final InputQueue input = new InputQueue();
+    
+    //writes the frame times to internal storage
+    private final TraceWriter trace;
+    
+    //where the game is rendered before being copied to the screen
+    private FrameBuffer frame;
+    
+    //the time of the most recent blit on the render thread (nanoseconds), -1 once the game thread has recorded it
+    private final AtomicLong blitTime = new AtomicLong(-1);
+    
     //get the ratio of the users screen compared to the default dimensions for the motion event
     private float scaleMotionX, scaleMotionY;
-
+    
     //get the ratio of the users screen compared to the default dimensions for the render
     private float scaleRenderX, scaleRenderY;
     
@@ -62,6 +82,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         
         //store context
         this.activity = activity;
+        
+        //create the trace writer, it is only started if enabled
+        this.trace = new TraceWriter(activity);
             
         //make game panel focusable = true so it can handle events
         super.setFocusable(true);
@@ -77,6 +100,15 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     	return this.thread;
     }
     
+    /**
+     * Get the trace writer
+     * @return The object writing the frame times to internal storage
+     */
+    public TraceWriter getTrace()
+    {
+    	return this.trace;
+    }
+    
     /**
      * Get the screen manager 
      * @return The screen manager containing all our screens
@@ -107,7 +139,7 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 {
                     //set running false, to stop the infinite loop
                 	getThread().setRunning(false);
-
+                    
                     //wait for thread to finish
                 	getThread().join();
                 }
@@ -124,8 +156,11 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
         //make thread null
         this.thread = null;
         
-        //assign null
-        RANDOM = null;
+        //now that the game thread has stopped, write the remaining frame times
+        getTrace().finish();
+        
+        //and stop the threads that update large asteroid fields
+        FieldWorkers.shutdown();
         
         if (screen != null)
         {
@@ -133,6 +168,12 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             screen = null;
         }
         
+        if (frame != null)
+        {
+            frame.dispose();
+            frame = null;
+        }
+        
         //recycle all asset objects
         Assets.recycle();
     }
@@ -193,6 +234,13 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 
                 switch (action)
                 {
+	                case MotionEvent.ACTION_POINTER_DOWN:
+	                	
+	                	//a three finger tap turns the profiler on or off
+	                	if (event.getPointerCount() == PROFILER_POINTERS)
+	                		Profiler.toggle();
+	                	break;
+	                	
 	                case MotionEvent.ACTION_DOWN:
 	                	
 	                	//flag motion down occurred
@@ -213,8 +261,8 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
 	                	break;
                 }
                 
-                //update the screen/game etc.. with the specified motion events
-                getScreen().update(action, x, y);
+                //the game thread will update the screen/game etc.. with the motion event at the start of the next update
+                input.offer(action, x, y);
             }
         }
         catch (Exception e)
@@ -238,10 +286,6 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             //load assets
             Assets.load(getActivity());
             
-            //create if null
-            if (RANDOM == null)
-                RANDOM = new Random(System.nanoTime());
-            
             //create the thread if it doesn't exist
             if (getThread() == null)
         		this.thread = new MainThread(getHolder(), this);
@@ -252,6 +296,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 //start the thread
             	getThread().setRunning(true);
             	getThread().start();
+            	
+            	//start writing the frame times, if enabled
+            	getTrace().begin();
             }
             
             //flag the thread as not paused
@@ -318,13 +365,34 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             {
                 //load all assets
                 Assets.load(getActivity());
-
+                
                 //create new screen manager
                 this.screen = new ScreenManager(this);
+                
+                //measure the simulation before the game starts
+                if (Benchmarks.ENABLED)
+                	new Benchmarks(getScreen()).run();
+                
+                //make sure a game in progress doesn't allocate memory, the game stops if it does
+                if (AllocationBudget.ENABLED)
+                	new AllocationBudget(getScreen()).run();
             }
             else
             {
+            	//handle the motion events that happened since the last update
+            	Profiler.begin(Section.Input);
+            	input.drain(getScreen());
+            	Profiler.end(Section.Input);
+            	
+            	Profiler.begin(Section.Update);
             	getScreen().update();
+            	Profiler.end(Section.Update);
+            	
+            	//tag the frame times with what is being played
+            	final Game game = getScreen().getScreenGame().getGame();
+            	
+            	if (game != null)
+            		getTrace().setTag(game.getOverlay().getWave(), game.getMode());
             }
         }
         catch (Exception e)
@@ -350,7 +418,7 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
     {
     	return this.scaleMotionY;
     }
-
+    
     /**
      * Get the x scale factor for the render
      * @return The x ratio of the user's width compared to the default width
@@ -388,11 +456,17 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
                 //make sure the screen object exists
                 if (getScreen() != null)
                 {
-                    //scale to the screen size
-                    canvas.scale(getScaleRenderX(), getScaleRenderY());
-                
-                    //render the main screen containing the game and other screens
-                    getScreen().render(canvas);
+                	//render the main screen containing the game and other screens
+                	render(beginFrame(canvas));
+                	
+                	//display the frame
+                	final long blit = endFrame(canvas);
+                	
+                	if (blit >= 0)
+                		Profiler.record(Section.Blit, blit);
+                	
+                    //draw the profiler over everything, if enabled, the canvas is already scaled so it is drawn at the default dimensions
+                    Profiler.render(canvas);
                 }
             }
             catch (Exception e)
@@ -404,4 +478,118 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback, Di
             canvas.restoreToCount(savedState);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Render the game at the default dimensions.<br>
+     * This is called from the game thread, either to draw directly or to record a snapshot for the render thread
+     * @param canvas Where to render, the coordinates are the default dimensions
+     * @throws Exception
+     */
+    public void render(final Canvas canvas) throws Exception
+    {
+    	//make sure the screen object exists
+    	if (getScreen() == null)
+    		return;
+    	
+        //render the main screen containing the game and other screens
+        Profiler.begin(Section.Render);
+        getScreen().render(canvas);
+        Profiler.end(Section.Render);
+    }
+    
+    /**
+     * Record a snapshot of the game for the render thread.<br>
+     * This is called from the game thread, the profiler is only used by the game thread so it is drawn into the snapshot
+     * @param canvas Where to record, the coordinates are the default dimensions
+     * @throws Exception
+     */
+    public void renderSnapshot(final Canvas canvas) throws Exception
+    {
+    	//record the most recent blit of the render thread, if there is a new one
+    	final long blit = blitTime.getAndSet(-1);
+    	
+    	if (blit >= 0)
+    		Profiler.record(Section.Blit, blit);
+    	
+    	render(canvas);
+    	
+        //draw the profiler over everything, if enabled
+        Profiler.render(canvas);
+    }
+    
+    /**
+     * Draw a snapshot recorded by the game thread to the screen.<br>
+     * This is called from the render thread, so the profiler is not used here
+     * @param canvas The canvas of the screen
+     * @param snapshot The recording of the game at the default dimensions
+     */
+    public void present(final Canvas canvas, final Picture snapshot)
+    {
+        //store the canvas state
+        final int savedState = canvas.save();
+        
+        try
+        {
+        	//draw the recording
+        	beginFrame(canvas).drawPicture(snapshot);
+        	
+        	//display the frame, the time is passed to the game thread with the next snapshot
+        	final long blit = endFrame(canvas);
+        	
+        	if (blit >= 0)
+        		blitTime.set(blit);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        
+        //restore previous canvas state
+        canvas.restoreToCount(savedState);
+    }
+    
+    /**
+     * Get the canvas a frame is rendered to
+     * @param canvas The canvas of the screen
+     * @return The frame buffer canvas, or the screen canvas scaled to the default dimensions
+     */
+    private Canvas beginFrame(final Canvas canvas)
+    {
+    	if (FrameBuffer.ENABLED)
+    	{
+    		//create the frame buffer the first time
+    		if (frame == null)
+    			frame = new FrameBuffer(FrameBuffer.SCALE);
+    		
+    		return frame.begin();
+    	}
+    	else
+    	{
+            //scale to the screen size
+            canvas.scale(getScaleRenderX(), getScaleRenderY());
+            
+            return canvas;
+    	}
+    }
+    
+    /**
+     * Finish the frame started with beginFrame
+     * @param canvas The canvas of the screen
+     * @return The time taken to copy the frame buffer to the screen (nanoseconds), -1 if there is no frame buffer
+     */
+    private long endFrame(final Canvas canvas)
+    {
+    	if (!FrameBuffer.ENABLED)
+    		return -1;
+    	
+    	//copy the frame to the screen once
+    	final long start = System.nanoTime();
+    	frame.end(canvas);
+    	final long elapsed = System.nanoTime() - start;
+    	
+        //scale to the screen size
+        canvas.scale(getScaleRenderX(), getScaleRenderY());
+        
+        return elapsed;
+    }
+}
@@ -0,0 +1,114 @@
+package com.gamesbykevin.asteroids.panel;
+
+import com.gamesbykevin.asteroids.screen.ScreenManager;
+
+/**
+ * A bounded queue of touch events passed from the UI thread to the game thread.<br>
+ * Only one thread may add events and only one thread may remove them, so no locking is needed.
+ * The events are stored in preallocated arrays so nothing is created when a touch happens
+ * @author GOD
+ */
+public final class InputQueue
+{
+    /**
+     * The number of events we can hold, must be a power of 2
+     */
+    public static final int CAPACITY = 64;
+    
+    /**
+     * Used to wrap the position to the array index
+     */
+    private static final int MASK = CAPACITY - 1;
+    
+    //the action and location of each event
+    private final int[] actions;
+    private final float[] x, y;
+    
+    //the number of events ever added, only changed by the UI thread
+    private volatile int head = 0;
+    
+    //the number of events ever removed, only changed by the game thread
+    private volatile int tail = 0;
+    
+    //the number of events we had to drop because the queue was full
+    private volatile int dropped = 0;
+    
+    public InputQueue()
+    {
+        this.actions = new int[CAPACITY];
+        this.x = new float[CAPACITY];
+        this.y = new float[CAPACITY];
+    }
+    
+    /**
+     * Add an event, this should only be called from the UI thread
+     * @param action The action of the MotionEvent
+     * @param x (x-coordinate)
+     * @param y (y-coordinate)
+     * @return true if the event was added, false if the queue is full and the event was dropped
+     */
+    public boolean offer(final int action, final float x, final float y)
+    {
+        final int head = this.head;
+        
+        //if the queue is full, drop the event
+        if (head - tail >= CAPACITY)
+        {
+            dropped++;
+            return false;
+        }
+        
+        final int index = head & MASK;
+        
+        this.actions[index] = action;
+        this.x[index] = x;
+        this.y[index] = y;
+        
+        //publish the event, the game thread will now see it
+        this.head = head + 1;
+        
+        return true;
+    }
+    
+    /**
+     * Pass every queued event to the screen, this should only be called from the game thread
+     * @param screen The screen manager that will handle the events
+     * @return The number of events handled
+     * @throws Exception
+     */
+    public int drain(final ScreenManager screen) throws Exception
+    {
+        //only handle the events added before we started
+        final int head = this.head;
+        
+        int count = 0;
+        
+        while (tail != head)
+        {
+            final int index = tail & MASK;
+            
+            try
+            {
+                screen.update(actions[index], x[index], y[index]);
+            }
+            finally
+            {
+                //the slot can now be reused
+                tail++;
+            }
+            
+            count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Get the number of events dropped
+     * @return The number of events we had to drop because the queue was full
+     */
+    public int getDropped()
+    {
+        return this.dropped;
+    }
+}
@@ -1,21 +1,21 @@
 package com.gamesbykevin.asteroids.player;
 
+import com.gamesbykevin.androidframework.resources.Font;
 import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.asteroids.assets.Assets;
 import com.gamesbykevin.asteroids.entity.asteroid.Asteroid;
 import com.gamesbykevin.asteroids.entity.ship.Cpu;
 import com.gamesbykevin.asteroids.entity.ship.Ship;
 import com.gamesbykevin.asteroids.game.Game;
-import com.gamesbykevin.asteroids.overlay.Overlay;
 import com.gamesbykevin.asteroids.panel.GamePanel;
-import com.gamesbykevin.asteroids.screen.OptionsScreen;
 
-import android.content.Context;
+import java.util.ArrayList;
+
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
-import android.os.Vibrator;
 
 public class Player implements IPlayer
 {
@@ -28,6 +28,9 @@ public class Player implements IPlayer
 	//this will contain the stats
 	private String description;
 	
+	//used to build the description
+	private final StringBuilder builder = new StringBuilder();
+	
 	//keep track of the lives and the score
 	private int lives, score;
 
@@ -37,15 +40,24 @@ public class Player implements IPlayer
 	//x-coordinate where the icon will be rendered
 	private int iconX;
 	
-	//our paint reference object
-	private final Paint paint;
-	
 	//the player's icon
 	private final Bitmap icon;
 	
+	//is this the human player
+	private final boolean human;
+	
 	//temporary rectangle used to calculate coordinates
 	private Rect tmp;
 	
+	//the paint used to draw the description of every player, created when first rendered
+	private static Paint paint;
+	
+	//do we need to calculate where the text is rendered
+	private boolean position = true;
+	
+	//the asteroids close enough to the ship to check for collision
+	private ArrayList<Asteroid> candidates;
+	
 	/**
 	 * The number of digits we expect the score to not exceed
 	 */
@@ -69,8 +81,8 @@ public class Player implements IPlayer
 		//store our game reference
 		this.game = game;
 		
-		//store paint reference
-		this.paint = game.getPaint();
+		//store if human
+		this.human = human;
 		
 		if (human)
 		{
@@ -95,14 +107,11 @@ public class Player implements IPlayer
 			this.ship = new Cpu(Ship.Type.ShipCpu, game);
 		}
 		
-		//update the y coordinate
-		this.y = (human) ? (int)(icon.getHeight() * .5) : (int)(icon.getHeight() * 2.0);
-		
-		//position the x-coordinate of the icon
-		this.iconX = GamePanel.WIDTH - (int)(icon.getWidth() * 1.5);
-		
 		//the score will always start at 0
 		setScore(0);
+		
+		//create the list used for collision checks
+		this.candidates = new ArrayList<Asteroid>();
 	}
 
 	/**
@@ -129,42 +138,50 @@ public class Player implements IPlayer
 	@Override
 	public final void updateDescription() 
 	{
-		String result = "";
+		//reuse the builder so only the final text is created
+		builder.setLength(0);
 		
-		result += " Score: ";
+		builder.append(" Score: ");
 		
-		//count the missing characters for the score
-		int extraScore = SCORE_LENGTH - String.valueOf(getScore()).length();
+		//add the score with the missing characters in front
+		appendPadded(getScore(), SCORE_LENGTH);
 		
-		//add the extra characters
-		for (int index = 0; index < extraScore; index++)
-		{
-			result += "0";
-		}
+		//make some space
+		builder.append("      ");
 		
-		//add the score afterwards
-		result += getScore();
+		//add the lives with the missing characters in front
+		appendPadded(getLives(), LIVES_LENGTH);
 		
-		//make some space
-		result += "      ";
+		//add the extra text
+		builder.append(" x ");
 		
-		//the missing characters for the lives
-		int extraLives = LIVES_LENGTH - String.valueOf(getLives()).length();
+		//update the description
+		this.description = builder.toString(); 
+	}
+	
+	/**
+	 * Add the value to the description, with zeros in front for the missing characters
+	 * @param value The value to add
+	 * @param length The number of digits we expect the value to not exceed
+	 */
+	private void appendPadded(final int value, final int length)
+	{
+		//count the digits of the value
+		int digits = 1;
 		
-		//add the extra characters
-		for (int index = 0; index < extraLives; index++)
+		for (int remaining = value / 10; remaining != 0; remaining /= 10)
 		{
-			result += "0";
+			digits++;
 		}
 		
-		//add the lives afterwards
-		result += getLives();
-		
-		//add the extra text
-		result += " x ";
+		//add the extra characters
+		for (int index = digits; index < length; index++)
+		{
+			builder.append('0');
+		}
 		
-		//update the description
-		this.description = result; 
+		//add the value afterwards
+		builder.append(value);
 	}
 
 	@Override
@@ -214,7 +231,7 @@ public class Player implements IPlayer
 	}
 	
 	/**
-	 * Update the coordinates where we render the text.<br>
+	 * Update the description and flag that the text needs to be positioned.<br>
 	 * We should call this method when updating the lives, or the player's score
 	 */
 	private void positionText()
@@ -222,15 +239,52 @@ public class Player implements IPlayer
 		//update the description
 		updateDescription();
 		
+		//the text will be measured when rendered, so the game update doesn't need the paint
+		this.position = true;
+	}
+	
+	/**
+	 * Get the paint
+	 * @return The paint used to draw the description of every player
+	 */
+	private static Paint getPaint()
+	{
+		//the game rules never render, so the paint is only created here
+		if (paint == null)
+		{
+			paint = new Paint();
+			paint.setTypeface(Font.getFont(Assets.FontGameKey.Default));
+			paint.setTextSize(24f);
+			paint.setColor(Color.WHITE);
+			paint.setLinearText(false);
+		}
+		
+		return paint;
+	}
+	
+	/**
+	 * Calculate the coordinates where we render the icon and text
+	 */
+	private void measureText()
+	{
 		//create object if null
 		if (tmp == null)
 			tmp = new Rect();
 		
+		//update the y coordinate
+		y = (human) ? (int)(icon.getHeight() * .5) : (int)(icon.getHeight() * 2.0);
+		
+		//position the x-coordinate of the icon
+		iconX = GamePanel.WIDTH - (int)(icon.getWidth() * 1.5);
+		
 		//get the boundary of the rectangle for this text
-		paint.getTextBounds(getDescription(), 0, getDescription().length(), tmp);
+		getPaint().getTextBounds(getDescription(), 0, getDescription().length(), tmp);
 		
 		//update the x coordinate
 		x = iconX - tmp.width() - (int)(icon.getWidth() * .5);
+		
+		//the text is now positioned
+		this.position = false;
 	}
 	
 	@Override
@@ -239,8 +293,12 @@ public class Player implements IPlayer
 		//render the ship
 		getShip().render(canvas);
 		
+		//make sure the text is positioned
+		if (position)
+			measureText();
+		
 		//render the player score, lives, etc...
-		canvas.drawText(getDescription(), x, y, paint);
+		canvas.drawText(getDescription(), x, y, getPaint());
 
 		//render the players icon image
 		canvas.drawBitmap(icon, iconX, y - (int)(icon.getHeight() * .5), null);
@@ -256,34 +314,22 @@ public class Player implements IPlayer
 		//update ship basics
 		getShip().update();
 		
-		//check for collision with asteroids
-		for (Asteroid asteroid : game.getAsteroids().get())
+		//add the exhaust while thrusting
+		if (getShip().hasThrust())
+			game.getEffects().getParticles().exhaust(getShip());
+		
+		//check for collision with the asteroids near the ship
+		game.getAsteroids().getGrid().query(getShip(), candidates);
+		
+		for (int index = 0; index < candidates.size(); index++)
 		{
+			final Asteroid asteroid = candidates.get(index);
+			
 			//if the asteroid has collision with the ship
 			if (asteroid.hasCollision(getShip(), false))
 			{
-				//add effect
-				game.getEffects().add(getShip());
-				
-				//ship was hit
-				getShip().setDead(true);
-				
-				//deduct a life
-				setLives(getLives() - 1);
-				
-				//if this player is human, we will vibrate
-				if (getShip().getType() == Ship.Type.ShipHuman)
-				{
-	        		//make sure vibrate option is enabled
-	        		if (game.getScreen().getScreenOptions().getIndex(OptionsScreen.Key.Vibrate) == 0)
-	        		{
-		        		//get our vibrate object
-		        		Vibrator v = (Vibrator) game.getScreen().getPanel().getActivity().getSystemService(Context.VIBRATOR_SERVICE);
-		        		 
-						//vibrate for a specified amount of milliseconds
-						v.vibrate(Overlay.VIBRATION_DURATION);
-	        		}
-				}
+				//ship was hit, it is destroyed at the end of the update
+				game.getCommands().crash(this);
 				
 				//no need to check additional
 				break;
@@ -301,5 +347,11 @@ public class Player implements IPlayer
 		}
 		
 		tmp = null;
+		
+		if (candidates != null)
+		{
+			candidates.clear();
+			candidates = null;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,604 @@
+package com.gamesbykevin.asteroids.profiler;
+
+import java.util.Arrays;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Debug;
+
+/**
+ * Records how long each part of the game loop takes and displays the results over the game.<br>
+ * The timings are kept in preallocated ring buffers, so nothing is created while profiling
+ * @author GOD
+ */
+public final class Profiler
+{
+    /**
+     * The parts of the game loop we measure
+     */
+    public enum Section
+    {
+        Input(null, "input"),
+        Update(null, "update"),
+        Players(Update, "  players"),
+        Asteroids(Update, "  asteroids"),
+        Lasers(Update, "  lasers"),
+        Effects(Update, "  effects"),
+        Controller(Update, "  controller"),
+        Commit(Update, "  commit"),
+        Overlay(Update, "  overlay"),
+        Render(null, "render"),
+        RenderLasers(Render, "  lasers"),
+        RenderAsteroids(Render, "  asteroids"),
+        RenderPlayers(Render, "  players"),
+        RenderEffects(Render, "  effects"),
+        RenderOverlay(Render, "  overlay"),
+        Blit(null, "blit"),
+        Frame(null, "frame");
+        
+        //the section this is measured within, null if this is measured on its own
+        private final Section parent;
+        
+        //the name displayed
+        private final String label;
+        
+        private Section(final Section parent, final String label)
+        {
+            this.parent = parent;
+            this.label = label;
+        }
+        
+        /**
+         * Get the parent
+         * @return The section this is measured within, null if this is measured on its own
+         */
+        public Section getParent()
+        {
+            return this.parent;
+        }
+        
+        /**
+         * Get the label
+         * @return The name displayed in the profiler
+         */
+        public String getLabel()
+        {
+            return this.label;
+        }
+    }
+    
+    /**
+     * The values counted each update, displayed below the sections
+     */
+    public enum Counter
+    {
+        Effects("effects"),
+        Particles("particles");
+        
+        //the name displayed
+        private final String label;
+        
+        private Counter(final String label)
+        {
+            this.label = label;
+        }
+        
+        /**
+         * Get the label
+         * @return The name displayed in the profiler
+         */
+        public String getLabel()
+        {
+            return this.label;
+        }
+    }
+    
+    //every section and counter, cached since values() creates a new array each call
+    private static final Section[] SECTIONS = Section.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    
+    /**
+     * The number of samples kept for each section, must be a power of 2
+     */
+    public static final int SAMPLES = 128;
+    
+    /**
+     * Used to wrap the sample index
+     */
+    private static final int MASK = SAMPLES - 1;
+    
+    /**
+     * The number of renders between calculating the statistics
+     */
+    private static final int REFRESH = 30;
+    
+    /**
+     * The time represented by the full width of a bar (nanoseconds), one frame at 60 fps
+     */
+    private static final long BAR_SCALE = 16666667L;
+    
+    /**
+     * Nanoseconds in a millisecond
+     */
+    private static final float NANOS_PER_MILLI = 1000000f;
+    
+    //the dimensions and location of the graph
+    private static final int X = 10, Y = 110, ROW_HEIGHT = 16, TEXT_WIDTH = 300, BAR_WIDTH = 150;
+    
+    //is the profiler recording
+    private static volatile boolean enabled = false;
+    
+    //has a toggle been requested from another thread
+    private static volatile boolean toggle = false;
+    
+    //are we counting the memory allocated by each section
+    private static boolean counting = false;
+    
+    //the thread allocation size when each section started, and the total allocated by each section (bytes)
+    private static final long[] allocStarts = new long[SECTIONS.length];
+    private static final long[] bytes = new long[SECTIONS.length];
+    
+    //the recorded samples of each section
+    private static final long[][] samples = new long[SECTIONS.length][SAMPLES];
+    
+    //the number of samples ever recorded for each section
+    private static final int[] counts = new int[SECTIONS.length];
+    
+    //the start time of each section
+    private static final long[] starts = new long[SECTIONS.length];
+    
+    //the statistics of each section (nanoseconds)
+    private static final long[] min = new long[SECTIONS.length];
+    private static final long[] avg = new long[SECTIONS.length];
+    private static final long[] p95 = new long[SECTIONS.length];
+    private static final long[] p99 = new long[SECTIONS.length];
+    
+    //the text displayed for each section, only created when the statistics are calculated
+    private static final String[] text = new String[SECTIONS.length];
+    
+    //the most recent value of each counter, and the text displayed for each
+    private static final int[] values = new int[COUNTERS.length];
+    private static final String[] counterText = new String[COUNTERS.length];
+    
+    //used to sort the samples
+    private static final long[] sorted = new long[SAMPLES];
+    
+    //used to build the text of each row
+    private static final StringBuilder builder = new StringBuilder();
+    
+    //the width of each label and value column
+    private static final int LABEL_WIDTH = 12, VALUE_WIDTH = 5;
+    
+    //the number of renders since the statistics were calculated
+    private static int renders = 0;
+    
+    //how we draw the graph
+    private static Paint paint;
+    
+    private Profiler()
+    {
+        //static methods only
+    }
+    
+    /**
+     * Is the profiler enabled?
+     * @return true = yes, false = no
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+    
+    /**
+     * Turn the profiler on or off
+     * @param enabled true to start recording and displaying, false to stop
+     */
+    public static void setEnabled(final boolean enabled)
+    {
+        //start with no samples
+        if (enabled && !Profiler.enabled)
+            reset();
+        
+        Profiler.enabled = enabled;
+    }
+    
+    /**
+     * Request the profiler be turned on or off.<br>
+     * This can be called from any thread, the change happens on the next render
+     */
+    public static void toggle()
+    {
+        toggle = true;
+    }
+    
+    /**
+     * Count the memory allocated by each section.<br>
+     * The thread allocation counting needs to be started with Debug.startAllocCounting(), the totals are cleared when turned on.
+     * Only call this from the game thread
+     * @param counting true to start counting, false to stop
+     */
+    public static void setCounting(final boolean counting)
+    {
+        if (counting)
+        {
+            for (int index = 0; index < bytes.length; index++)
+            {
+                bytes[index] = 0;
+            }
+        }
+        
+        Profiler.counting = counting;
+    }
+    
+    /**
+     * Get the memory allocated
+     * @param section The section measured
+     * @return The total memory allocated by the section (bytes) since counting was turned on
+     */
+    public static long getBytes(final Section section)
+    {
+        return bytes[section.ordinal()];
+    }
+    
+    /**
+     * Get the children
+     * @param parent The section
+     * @return The sections measured within the parent, in the order they are displayed
+     */
+    public static Section[] getChildren(final Section parent)
+    {
+        int size = 0;
+        
+        for (Section section : SECTIONS)
+        {
+            if (section.getParent() == parent)
+                size++;
+        }
+        
+        final Section[] children = new Section[size];
+        
+        //the index of the next child
+        int index = 0;
+        
+        for (Section section : SECTIONS)
+        {
+            if (section.getParent() == parent)
+                children[index++] = section;
+        }
+        
+        return children;
+    }
+    
+    /**
+     * Mark the start of a section
+     * @param section The section starting
+     */
+    public static void begin(final Section section)
+    {
+        if (counting)
+            allocStarts[section.ordinal()] = Debug.getThreadAllocSize();
+        
+        if (!enabled)
+            return;
+        
+        starts[section.ordinal()] = System.nanoTime();
+    }
+    
+    /**
+     * Mark the end of a section, the time since begin was called is recorded
+     * @param section The section ending
+     */
+    public static void end(final Section section)
+    {
+        final int index = section.ordinal();
+        
+        if (counting)
+            bytes[index] += Debug.getThreadAllocSize() - allocStarts[index];
+        
+        if (!enabled)
+            return;
+        
+        record(section, System.nanoTime() - starts[index]);
+    }
+    
+    /**
+     * Record a sample
+     * @param section The section measured
+     * @param nanos The time taken (nanoseconds)
+     */
+    public static void record(final Section section, final long nanos)
+    {
+        if (!enabled)
+            return;
+        
+        final int index = section.ordinal();
+        
+        samples[index][counts[index] & MASK] = nanos;
+        counts[index]++;
+    }
+    
+    /**
+     * Record the value of a counter
+     * @param counter The counter
+     * @param value The current value
+     */
+    public static void count(final Counter counter, final int value)
+    {
+        if (!enabled)
+            return;
+        
+        values[counter.ordinal()] = value;
+    }
+    
+    /**
+     * Get the value of a counter
+     * @param counter The counter
+     * @return The most recent value recorded
+     */
+    public static int getCount(final Counter counter)
+    {
+        return values[counter.ordinal()];
+    }
+    
+    /**
+     * Get the minimum
+     * @param section The section measured
+     * @return The shortest recorded time of the section (nanoseconds) as of the last calculation
+     */
+    public static long getMin(final Section section)
+    {
+        return min[section.ordinal()];
+    }
+    
+    /**
+     * Get the average
+     * @param section The section measured
+     * @return The average recorded time of the section (nanoseconds) as of the last calculation
+     */
+    public static long getAverage(final Section section)
+    {
+        return avg[section.ordinal()];
+    }
+    
+    /**
+     * Get the 95th percentile
+     * @param section The section measured
+     * @return 95% of the recorded times are at or below this value (nanoseconds) as of the last calculation
+     */
+    public static long getP95(final Section section)
+    {
+        return p95[section.ordinal()];
+    }
+    
+    /**
+     * Get the 99th percentile
+     * @param section The section measured
+     * @return 99% of the recorded times are at or below this value (nanoseconds) as of the last calculation
+     */
+    public static long getP99(final Section section)
+    {
+        return p99[section.ordinal()];
+    }
+    
+    /**
+     * Remove all samples and statistics
+     */
+    private static void reset()
+    {
+        for (int index = 0; index < counts.length; index++)
+        {
+            counts[index] = 0;
+            min[index] = 0;
+            avg[index] = 0;
+            p95[index] = 0;
+            p99[index] = 0;
+            text[index] = null;
+        }
+        
+        for (int index = 0; index < values.length; index++)
+        {
+            values[index] = 0;
+            counterText[index] = null;
+        }
+        
+        renders = 0;
+    }
+    
+    /**
+     * Calculate the statistics of every section from the recorded samples
+     */
+    private static void calculate()
+    {
+        for (Section section : SECTIONS)
+        {
+            final int index = section.ordinal();
+            
+            //the number of samples available
+            final int size = Math.min(counts[index], SAMPLES);
+            
+            if (size == 0)
+                continue;
+            
+            //sort a copy so we can find the percentiles
+            System.arraycopy(samples[index], 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            
+            long total = 0;
+            
+            for (int i = 0; i < size; i++)
+            {
+                total += sorted[i];
+            }
+            
+            min[index] = sorted[0];
+            avg[index] = total / size;
+            p95[index] = sorted[((size * 95) - 1) / 100];
+            p99[index] = sorted[((size * 99) - 1) / 100];
+            
+            builder.setLength(0);
+            appendLabel(section.getLabel());
+            appendMillis(min[index]);
+            appendMillis(avg[index]);
+            appendMillis(p95[index]);
+            appendMillis(p99[index]);
+            text[index] = builder.toString();
+        }
+        
+        for (Counter counter : COUNTERS)
+        {
+            builder.setLength(0);
+            appendLabel(counter.getLabel());
+            appendValue(values[counter.ordinal()]);
+            counterText[counter.ordinal()] = builder.toString();
+        }
+    }
+    
+    /**
+     * Add the label to the row, padded to the width of the label column
+     * @param label The name displayed
+     */
+    private static void appendLabel(final String label)
+    {
+        builder.append(label);
+        
+        for (int length = label.length(); length < LABEL_WIDTH; length++)
+        {
+            builder.append(' ');
+        }
+    }
+    
+    /**
+     * Add the time to the row in milliseconds with 2 decimal places, right aligned in the value column
+     * @param nanos The time (nanoseconds)
+     */
+    private static void appendMillis(final long nanos)
+    {
+        //the time in hundredths of a millisecond, rounded
+        final long hundredths = Math.round(nanos / (NANOS_PER_MILLI / 100));
+        final long whole = hundredths / 100;
+        final long fraction = hundredths % 100;
+        
+        //the whole milliseconds, the decimal point and 2 decimal places
+        pad(getDigits(whole) + 3);
+        builder.append(whole).append('.');
+        
+        if (fraction < 10)
+            builder.append('0');
+        
+        builder.append(fraction);
+    }
+    
+    /**
+     * Add the value to the row, right aligned in the value column
+     * @param value The value of a counter
+     */
+    private static void appendValue(final int value)
+    {
+        pad(getDigits(value));
+        builder.append(value);
+    }
+    
+    /**
+     * Add the space between columns and the spaces to right align a value
+     * @param length The number of characters in the value
+     */
+    private static void pad(final int length)
+    {
+        builder.append(' ');
+        
+        for (int count = length; count < VALUE_WIDTH; count++)
+        {
+            builder.append(' ');
+        }
+    }
+    
+    /**
+     * Get the number of characters
+     * @param value The value
+     * @return The number of characters needed to display the value, including the sign
+     */
+    private static int getDigits(long value)
+    {
+        int digits = (value < 0) ? 2 : 1;
+        
+        while (value >= 10 || value <= -10)
+        {
+            value /= 10;
+            digits++;
+        }
+        
+        return digits;
+    }
+    
+    /**
+     * Draw the profiler over the game.<br>
+     * Each section shows the min/avg/p95/p99 (milliseconds), a bar for the average and a line for the p99
+     * @param canvas Where to write the pixel data
+     */
+    public static void render(final Canvas canvas)
+    {
+        //apply any requested toggle
+        if (toggle)
+        {
+            toggle = false;
+            setEnabled(!enabled);
+        }
+        
+        if (!enabled)
+            return;
+        
+        //calculate the statistics every so often
+        if (renders % REFRESH == 0)
+            calculate();
+        
+        renders++;
+        
+        if (paint == null)
+        {
+            paint = new Paint();
+            paint.setTextSize(12f);
+            paint.setTypeface(Typeface.MONOSPACE);
+        }
+        
+        //the title row
+        paint.setColor(Color.WHITE);
+        canvas.drawText("section        min   avg   p95   p99 (ms)", X, Y, paint);
+        
+        for (Section section : SECTIONS)
+        {
+            final int index = section.ordinal();
+            
+            if (text[index] == null)
+                continue;
+            
+            final float y = Y + ((index + 1) * ROW_HEIGHT);
+            final float x = X + TEXT_WIDTH;
+            
+            //the average bar
+            paint.setColor(avg[index] > BAR_SCALE ? Color.RED : Color.GREEN);
+            canvas.drawRect(x, y - ROW_HEIGHT + 4, x + Math.min(BAR_WIDTH, (BAR_WIDTH * avg[index]) / BAR_SCALE), y, paint);
+            
+            //the p99 line
+            paint.setColor(Color.YELLOW);
+            final float p = x + Math.min(BAR_WIDTH, (BAR_WIDTH * p99[index]) / BAR_SCALE);
+            canvas.drawLine(p, y - ROW_HEIGHT + 4, p, y, paint);
+            
+            //the statistics
+            paint.setColor(Color.WHITE);
+            canvas.drawText(text[index], X, y, paint);
+        }
+        
+        //the counters are listed below the sections
+        for (Counter counter : COUNTERS)
+        {
+            final int index = counter.ordinal();
+            
+            if (counterText[index] == null)
+                continue;
+            
+            canvas.drawText(counterText[index], X, Y + ((text.length + index + 1) * ROW_HEIGHT), paint);
+        }
+    }
+}
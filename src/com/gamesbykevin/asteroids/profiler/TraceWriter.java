@@ -0,0 +1,346 @@
+package com.gamesbykevin.asteroids.profiler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import android.content.Context;
+
+/**
+ * Writes the time of every frame to a file in internal storage.<br>
+ * The game thread fills preallocated blocks of samples and a background thread writes the full blocks,
+ * if no block is available the sample is dropped so the game thread never waits on storage
+ * @author GOD
+ */
+public final class TraceWriter implements Runnable
+{
+    /**
+     * Do we write the frame times?
+     */
+    public static final boolean ENABLED = false;
+    
+    /**
+     * The number of samples in each block
+     */
+    private static final int BLOCK_SIZE = 1024;
+    
+    /**
+     * The number of blocks, this is the most memory the trace will ever use
+     */
+    private static final int BLOCKS = 4;
+    
+    /**
+     * How long the writer waits for a full block before checking if it should stop (milliseconds)
+     */
+    private static final long WAIT = 250L;
+    
+    /**
+     * Marks the start of a trace file ("ASTT")
+     */
+    private static final int MAGIC = 0x41535454;
+    
+    /**
+     * The version of the file format
+     */
+    private static final int VERSION = 1;
+    
+    /**
+     * The prefix of each trace file, the time the trace started is added
+     */
+    private static final String FILENAME_PREFIX = "trace_";
+    
+    /**
+     * The extension of each trace file
+     */
+    private static final String FILENAME_EXTENSION = ".bin";
+    
+    /**
+     * Nanoseconds in a microsecond
+     */
+    private static final long NANOS_PER_MICRO = 1000L;
+    
+    /**
+     * A fixed size group of samples passed between the threads
+     */
+    private static final class Block
+    {
+        //the frame time (microseconds)
+        private final int[] micros = new int[BLOCK_SIZE];
+        
+        //the number of updates run in the frame
+        private final byte[] updates = new byte[BLOCK_SIZE];
+        
+        //the wave being played
+        private final short[] waves = new short[BLOCK_SIZE];
+        
+        //the game mode being played
+        private final byte[] modes = new byte[BLOCK_SIZE];
+        
+        //the number of samples in the block
+        private int count = 0;
+    }
+    
+    //the context used to access internal storage
+    private final Context context;
+    
+    //the blocks available to the game thread
+    private final ArrayBlockingQueue<Block> free = new ArrayBlockingQueue<Block>(BLOCKS);
+    
+    //the blocks waiting to be written
+    private final ArrayBlockingQueue<Block> full = new ArrayBlockingQueue<Block>(BLOCKS);
+    
+    //the block being filled by the game thread
+    private Block current;
+    
+    //the current wave and mode, assigned by the game thread
+    private int wave = 0, mode = 0;
+    
+    //the number of samples dropped because every block was waiting to be written
+    private volatile int dropped = 0;
+    
+    //is the writer running
+    private volatile boolean running = false;
+    
+    //the background thread writing the blocks, a new one is created each time the trace begins
+    private Thread writer;
+    
+    /**
+     * Create the trace writer, the blocks are allocated now
+     * @param context The context used to access internal storage
+     */
+    public TraceWriter(final Context context)
+    {
+        this.context = context;
+        
+        for (int index = 0; index < BLOCKS; index++)
+        {
+            free.offer(new Block());
+        }
+    }
+    
+    /**
+     * Start writing the trace to a new file, does nothing if the trace is not enabled or is already being written.<br>
+     * The trace can begin again after it was finished, or after the writer stopped because of an error
+     */
+    public void begin()
+    {
+        if (!ENABLED || isRunning())
+            return;
+        
+        //make sure the previous writer is done with the blocks
+        join();
+        
+        //start over with every block empty
+        if (current != null)
+        {
+            current.count = 0;
+            free.offer(current);
+            current = null;
+        }
+        
+        for (Block block = full.poll(); block != null; block = full.poll())
+        {
+            block.count = 0;
+            free.offer(block);
+        }
+        
+        this.running = true;
+        
+        this.writer = new Thread(this, "TraceWriter");
+        
+        //this thread should never keep the app alive
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Is the writer running?
+     * @return true = yes, false = no
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+    
+    /**
+     * Assign what is being played, every sample after this will be tagged with these values.<br>
+     * Only call this from the game thread
+     * @param wave The current wave
+     * @param mode The current game mode
+     */
+    public void setTag(final int wave, final int mode)
+    {
+        this.wave = wave;
+        this.mode = mode;
+    }
+    
+    /**
+     * Get the dropped count
+     * @return The number of samples dropped because the writer could not keep up
+     */
+    public int getDropped()
+    {
+        return this.dropped;
+    }
+    
+    /**
+     * Record the time of a frame.<br>
+     * Only call this from the game thread, this will never wait on the writer
+     * @param nanos The time of the frame (nanoseconds)
+     * @param updates The number of updates run in the frame
+     */
+    public void record(final long nanos, final int updates)
+    {
+        if (!isRunning())
+            return;
+        
+        //if we don't have a block try to get one
+        if (current == null)
+        {
+            current = free.poll();
+            
+            //if every block is waiting to be written drop the sample
+            if (current == null)
+            {
+                dropped++;
+                return;
+            }
+        }
+        
+        final int index = current.count;
+        
+        current.micros[index] = (int)Math.min(Integer.MAX_VALUE, nanos / NANOS_PER_MICRO);
+        current.updates[index] = (byte)updates;
+        current.waves[index] = (short)wave;
+        current.modes[index] = (byte)mode;
+        current.count++;
+        
+        //once the block is full hand it to the writer, there is always room since we only have so many blocks
+        if (current.count >= BLOCK_SIZE)
+        {
+            full.offer(current);
+            current = null;
+        }
+    }
+    
+    /**
+     * Write the remaining samples and stop the writer.<br>
+     * Call this from the game thread once it has stopped
+     */
+    public void finish()
+    {
+        if (!isRunning())
+            return;
+        
+        //hand over the partial block
+        if (current != null)
+        {
+            if (current.count > 0)
+                full.offer(current);
+            
+            current = null;
+        }
+        
+        this.running = false;
+        
+        //wait for the writer to finish
+        join();
+    }
+    
+    /**
+     * Wait for the current writer to finish, if there is one
+     */
+    private void join()
+    {
+        if (writer == null)
+            return;
+        
+        try
+        {
+            writer.join();
+            writer = null;
+        }
+        catch (InterruptedException e)
+        {
+            e.printStackTrace();
+        }
+    }
+    
+    @Override
+    public void run()
+    {
+        DataOutputStream stream = null;
+        
+        try
+        {
+            //each session gets its own file
+            stream = new DataOutputStream(new BufferedOutputStream(context.openFileOutput(FILENAME_PREFIX + System.currentTimeMillis() + FILENAME_EXTENSION, Context.MODE_PRIVATE)));
+            
+            stream.writeInt(MAGIC);
+            stream.writeByte(VERSION);
+            stream.writeInt(BLOCK_SIZE);
+            
+            //keep writing until we are stopped and nothing is left
+            while (isRunning() || !full.isEmpty())
+            {
+                final Block block = full.poll(WAIT, TimeUnit.MILLISECONDS);
+                
+                if (block == null)
+                    continue;
+                
+                write(stream, block);
+                
+                //the block can be filled again
+                block.count = 0;
+                free.offer(block);
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            this.running = false;
+            
+            if (stream != null)
+            {
+                try
+                {
+                    stream.close();
+                }
+                catch (IOException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Write the block.<br>
+     * The block starts with the number of samples and the number dropped so far,
+     * each sample is the frame time (microseconds), the updates, the wave and the mode
+     * @param stream Where we write
+     * @param block The samples to write
+     * @throws IOException
+     */
+    private void write(final DataOutputStream stream, final Block block) throws IOException
+    {
+        stream.writeInt(block.count);
+        stream.writeInt(dropped);
+        
+        for (int index = 0; index < block.count; index++)
+        {
+            stream.writeInt(block.micros[index]);
+            stream.writeByte(block.updates[index]);
+            stream.writeShort(block.waves[index]);
+            stream.writeByte(block.modes[index]);
+        }
+        
+        //the batch is complete
+        stream.flush();
+    }
+}
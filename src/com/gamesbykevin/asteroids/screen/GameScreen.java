@@ -2,8 +2,12 @@ package com.gamesbykevin.asteroids.screen;
 
 import android.graphics.Canvas;
 import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.androidframework.resources.Images;
 import com.gamesbykevin.androidframework.screen.Screen;
+import com.gamesbykevin.asteroids.assets.Assets;
 import com.gamesbykevin.asteroids.game.Game;
+import com.gamesbykevin.asteroids.profiler.Profiler;
+import com.gamesbykevin.asteroids.profiler.Profiler.Section;
 
 /**
  * The game screen that contains the game
@@ -17,12 +21,41 @@ public class GameScreen implements Screen, Disposable
     //our main screen reference
     private final ScreenManager screen;
     
+    //keeps the most recent recording in internal storage
+    private ReplayWriter replays;
+    
     public GameScreen(final ScreenManager screen)
     {
         this.screen = screen;
+        
+        //create the storage for the recordings
+        this.replays = new ReplayWriter(screen.getPanel().getActivity());
+    }
+    
+    /**
+     * Get the replays
+     * @return Where the recordings of the games are kept
+     */
+    public ReplayWriter getReplays()
+    {
+        return this.replays;
+    }
+    
+    /**
+     * Keep the recording of a game left before it is over.<br>
+     * A game that is over has already kept its recording
+     */
+    public void saveReplay()
+    {
+        if (getGame() != null && !getGame().isGameOver())
+            getGame().saveReplay();
     }
     
-    protected Game getGame()
+    /**
+     * Get the game
+     * @return The object containing the main game functionality, null if not yet created
+     */
+    public Game getGame()
     {
         return this.game;
     }
@@ -34,7 +67,12 @@ public class GameScreen implements Screen, Disposable
     public void createGame() throws Exception
     {
         if (getGame() == null)
+        {
             this.game = new Game(screen);
+            
+            //keep the recording of every game played
+            this.game.setReplayStore(getReplays());
+        }
         
         //reset the game
         getGame().reset();
@@ -62,7 +100,22 @@ public class GameScreen implements Screen, Disposable
     public void update() throws Exception
     {
         if (getGame() != null)
+        {
             getGame().update();
+            
+            //once the game has ended, display the result
+            if (getGame().isGameOver())
+            {
+                //flag game over
+                screen.setState(ScreenManager.State.GameOver);
+                
+                //set message
+                screen.getScreenGameover().setMessage(
+                    getGame().getResult(), 
+                    "Score: " + getGame().getHuman().getScore()
+                );
+            }
+        }
     }
     
     @Override
@@ -70,7 +123,72 @@ public class GameScreen implements Screen, Disposable
     {
         //render game if exists
         if (getGame() != null)
-            getGame().render(canvas);
+            render(canvas, getGame());
+    }
+    
+    /**
+     * Render game elements, the game only contains the game rules so it is drawn here
+     * @param canvas Where to write the pixel data
+     * @param game The game to render
+     * @throws Exception
+     */
+    private void render(final Canvas canvas, final Game game) throws Exception
+    {
+        if (game.hasReset())
+        {
+            //render loading screen
+            canvas.drawBitmap(Images.getImage(Assets.ImageMenuKey.Splash), 0, 0, null);
+            
+            //flag that the user has been notified
+            game.setNotify(true);
+        }
+        else
+        {
+            //render these elements when the overlay is complete
+            if (game.getOverlay().isComplete())
+            {
+                //render the lasers
+                Profiler.begin(Section.RenderLasers);
+                game.getLasers().render(canvas);
+                Profiler.end(Section.RenderLasers);
+                
+                //render the asteroids
+                Profiler.begin(Section.RenderAsteroids);
+                game.getAsteroids().render(canvas);
+                Profiler.end(Section.RenderAsteroids);
+                
+                //render the players
+                Profiler.begin(Section.RenderPlayers);
+                
+                if (game.getHuman() != null)
+                    game.getHuman().render(canvas);
+                if (game.getCpu() != null)
+                    game.getCpu().render(canvas);
+                
+                Profiler.end(Section.RenderPlayers);
+            }
+            
+            //render the effects
+            Profiler.begin(Section.RenderEffects);
+            game.getEffects().render(canvas);
+            Profiler.end(Section.RenderEffects);
+            
+            Profiler.begin(Section.RenderOverlay);
+            
+            //render these elements when the overlay is complete
+            if (game.getOverlay().isComplete())
+            {
+                //render the controller
+                if (game.getController() != null)
+                    game.getController().render(canvas);
+            }
+            
+            //render the overlay
+            if (game.getOverlay() != null)
+                game.getOverlay().render(canvas);
+            
+            Profiler.end(Section.RenderOverlay);
+        }
     }
     
     @Override
@@ -78,8 +196,18 @@ public class GameScreen implements Screen, Disposable
     {
         if (game != null)
         {
+            //keep the recording of a game still being played
+            saveReplay();
+            
             game.dispose();
             game = null;
         }
+        
+        //write the remaining recording
+        if (replays != null)
+        {
+            replays.dispose();
+            replays = null;
+        }
     }
 }
\ No newline at end of file
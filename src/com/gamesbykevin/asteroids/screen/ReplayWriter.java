@@ -0,0 +1,186 @@
+package com.gamesbykevin.asteroids.screen;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import android.content.Context;
+
+import com.gamesbykevin.androidframework.resources.Disposable;
+import com.gamesbykevin.asteroids.game.replay.IReplayStore;
+import com.gamesbykevin.asteroids.game.replay.Replay;
+
+/**
+ * Keeps the most recent recording in internal storage.<br>
+ * The game thread copies the recording and a single background thread writes it, so the game thread never waits on storage.
+ * If a newer recording is saved before the previous one is written, only the newer one is written
+ * @author GOD
+ */
+public final class ReplayWriter implements IReplayStore, Runnable, Disposable
+{
+    /**
+     * The file name of the most recent recording in internal storage
+     */
+    public static final String FILENAME = "replay.bin";
+    
+    //the context used to access internal storage
+    private final Context context;
+    
+    //used to hand the recording to the writer
+    private final Object lock = new Object();
+    
+    //used so a recording isn't read while it is being written
+    private final Object file = new Object();
+    
+    //the most recent recording waiting to be written, null if there is nothing to write
+    private byte[] pending;
+    
+    //is the writer running
+    private boolean running = true;
+    
+    //the background thread writing the recordings
+    private final Thread writer;
+    
+    /**
+     * Create the replay writer, the background thread is started now
+     * @param context The context used to access internal storage
+     */
+    public ReplayWriter(final Context context)
+    {
+        this.context = context;
+        
+        this.writer = new Thread(this, "ReplayWriter");
+        
+        //this thread should never keep the app alive, dispose waits for the last recording
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    @Override
+    public void save(final Replay replay) throws IOException
+    {
+        //copy the recording now, the game will keep changing it
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.write(bytes);
+        
+        synchronized (lock)
+        {
+            //a recording not yet written is replaced, only the most recent is kept
+            this.pending = bytes.toByteArray();
+            lock.notifyAll();
+        }
+    }
+    
+    @Override
+    public Replay load() throws IOException
+    {
+        //the recording waiting to be written is the most recent
+        synchronized (lock)
+        {
+            if (pending != null)
+                return Replay.read(new ByteArrayInputStream(pending));
+        }
+        
+        synchronized (file)
+        {
+            final InputStream input = context.openFileInput(FILENAME);
+            
+            try
+            {
+                return Replay.read(input);
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+    }
+    
+    @Override
+    public void run()
+    {
+        while (true)
+        {
+            final byte[] data;
+            
+            synchronized (lock)
+            {
+                //wait for a recording
+                while (running && pending == null)
+                {
+                    try
+                    {
+                        lock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        //check if we are still running
+                    }
+                }
+                
+                //the last recording is written before we stop
+                if (pending == null)
+                    return;
+                
+                data = pending;
+                pending = null;
+            }
+            
+            try
+            {
+                write(data);
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    /**
+     * Write the recording to internal storage, replacing the previous file
+     * @param data The recording
+     * @throws IOException
+     */
+    private void write(final byte[] data) throws IOException
+    {
+        synchronized (file)
+        {
+            final OutputStream output = context.openFileOutput(FILENAME, Context.MODE_PRIVATE);
+            
+            try
+            {
+                output.write(data);
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+    }
+    
+    /**
+     * Write the remaining recording and stop the writer
+     */
+    @Override
+    public void dispose()
+    {
+        synchronized (lock)
+        {
+            running = false;
+            lock.notifyAll();
+        }
+        
+        try
+        {
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            //we were asked to stop, let the caller know
+            Thread.currentThread().interrupt();
+        }
+    }
+}
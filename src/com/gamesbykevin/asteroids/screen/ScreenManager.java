@@ -204,6 +204,10 @@ public final class ScreenManager implements Screen, Disposable
     {
     	try
     	{
+	        //keep the recording of a game left before it is over
+	        if (getState() == State.Running && state != State.Running && state != State.GameOver)
+	            getScreenGame().saveReplay();
+	        
 	        //if pausing store the previous state
 	        if (state == State.Paused)
 	        {
@@ -3,7 +3,10 @@ package com.gamesbykevin.asteroids.thread;
 import android.graphics.Canvas;
 import android.view.SurfaceHolder;
 import com.gamesbykevin.androidframework.anim.Animation;
+import com.gamesbykevin.asteroids.entity.Entity;
 import com.gamesbykevin.asteroids.panel.GamePanel;
+import com.gamesbykevin.asteroids.profiler.Profiler;
+import com.gamesbykevin.asteroids.profiler.Profiler.Section;
 
 /**
  * Our main thread containing the game loop
@@ -21,8 +24,28 @@ public class MainThread extends Thread
      */
     private static final long DEFAULT_PAUSE_SLEEP = 250L;
     
-    //the assigned frames per second for this game
-    public static final int FPS = 30;
+    /**
+     * The maximum number of frames rendered per second
+     */
+    public static final int FPS = 60;
+    
+    /**
+     * The fixed number of simulation updates per second.<br>
+     * All entity speeds are measured per update, so changing this changes the game speed
+     */
+    public static final int UPS = 30;
+    
+    /**
+     * The maximum number of updates we will run to catch up before a single render.<br>
+     * Any additional time is dropped so a slow frame can't make the next one even slower
+     */
+    private static final int MAX_UPDATES_PER_FRAME = 5;
+    
+    /**
+     * The amount of game time in each update (milliseconds).<br>
+     * Game timers count updates so the result doesn't depend on how fast the device is
+     */
+    public static final long TICK_DURATION = Animation.MILLISECONDS_PER_SECOND / UPS;
     
     //our game panel
     private final GamePanel panel;
@@ -45,6 +68,15 @@ public class MainThread extends Thread
     //do we pause the update/render
     private boolean pause = false;
     
+    //the number of updates performed for the current render
+    private int updates = 0;
+    
+    /**
+     * Do we draw to the surface on a separate render thread?<br>
+     * If true this thread records a snapshot of each frame, and the render thread draws the newest one to the screen
+     */
+    public static final boolean RENDER_THREAD = false;
+    
     public MainThread(SurfaceHolder holder, GamePanel panel)
     {
     	//call parent constructor
@@ -66,8 +98,29 @@ public class MainThread extends Thread
         //the frame count
         int frames = 0;
         
-        //the expected amount of time per each update
-        final long targetTime = (Animation.MILLISECONDS_PER_SECOND / FPS);
+        //the expected amount of time per each render (nanoseconds)
+        final long targetTime = (Animation.MILLISECONDS_PER_SECOND * Animation.NANO_SECONDS_PER_MILLISECOND) / FPS;
+        
+        //the fixed amount of time per each simulation update (nanoseconds)
+        final long tickTime = (Animation.MILLISECONDS_PER_SECOND * Animation.NANO_SECONDS_PER_MILLISECOND) / UPS;
+        
+        //the amount of simulation time we still need to catch up on (nanoseconds)
+        long lag = 0;
+        
+        //the time of the previous pass through the loop
+        long previousTime = System.nanoTime();
+        
+        //the snapshots passed to the render thread, if the render thread is used
+        final Snapshots snapshots = (RENDER_THREAD) ? new Snapshots() : null;
+        
+        //start the render thread
+        final RenderThread renderThread = (RENDER_THREAD) ? new RenderThread(getHolder(), getPanel(), snapshots) : null;
+        
+        if (renderThread != null)
+        {
+        	renderThread.setRunning(true);
+        	renderThread.start();
+        }
         
         try
         {
@@ -80,99 +133,128 @@ public class MainThread extends Thread
             		//sleep for a short time
             		sleep(DEFAULT_PAUSE_SLEEP);
             		
+            		//don't let the paused time count as simulation time
+            		previousTime = System.nanoTime();
+            		
             		//don't continue since the thread is paused
             		continue;
             	}
             	
-                //get the start time of this update
+                //get the start time of this pass
                 final long startTime = System.nanoTime();
-
-                //assign the canvas null
-                setCanvas(null);
-
-                try 
-                {
-                    //attempt to lock the canvas to edit the pixels of the surface
-                	setCanvas(getHolder().lockCanvas());
-
-                    //make sure no other threads are accessing the holder
-                    synchronized (getHolder())
-                    {
-                        //update our game panel
-                        getPanel().update();
-
-                        //if the canvas object was obtained and we did not pause, render
-                        if (getCanvas() != null && !isPaused())
-                            getPanel().draw(getCanvas());
-                    }
-                }
-                catch (Exception e)
-                {
-                    e.printStackTrace();
-                }
-                finally 
+                
+                //add the time passed since the previous pass
+                lag += startTime - previousTime;
+                previousTime = startTime;
+                
+                //if the render thread draws to the surface, we only record a snapshot
+                if (snapshots != null)
                 {
-                    //remove the lock (if possible)
-                    if (getCanvas() != null)
-                    {
-                        try
-                        {
-                            //render the pixels on the canvas to the screen
-                        	getHolder().unlockCanvasAndPost(getCanvas());
-                        }
-                        catch (Exception e)
-                        {
-                            e.printStackTrace();
-                        }
-                    }
+                	try
+                	{
+                		//run the updates without waiting on the surface
+                		lag = update(lag, tickTime);
+                		
+                		//record what we want rendered, the render thread will draw it
+                		if (!isPaused())
+                		{
+                			getPanel().renderSnapshot(snapshots.begin());
+                			snapshots.publish();
+                		}
+                		
+                        //record the time of this frame
+                        recordFrame(startTime);
+                	}
+                	catch (Exception e)
+                	{
+                		e.printStackTrace();
+                	}
                 }
-
-                //calculate the number of milliseconds elapsed
-                final long timeMillis = (System.nanoTime() - startTime) / Animation.NANO_SECONDS_PER_MILLISECOND;
-
-                //determine the amount of time to sleep
-                long waitTime = targetTime - timeMillis;
-
-                //make sure the wait time is at least 1 millisecond
-                if (waitTime < 1)
+                else
                 {
-                    //if debugging alert this update took longer than expected
-                    if (DEBUG)
-                    	System.out.println("Thread update took longer than expected: " + waitTime);
-                    
-                    //make sure we sleep at least 1 millisecond
-                    waitTime = 1;
+	                //assign the canvas null
+	                setCanvas(null);
+	
+	                try 
+	                {
+	                    //attempt to lock the canvas to edit the pixels of the surface
+	                	setCanvas(getHolder().lockCanvas());
+	
+	                    //make sure no other threads are accessing the holder
+	                    synchronized (getHolder())
+	                    {
+	                    	//run the updates to catch up with real time
+	                    	lag = update(lag, tickTime);
+	                    	
+	                        //if the canvas object was obtained and we did not pause, render
+	                        if (getCanvas() != null && !isPaused())
+	                            getPanel().draw(getCanvas());
+	                        
+	                        //record the time of this frame
+	                        recordFrame(startTime);
+	                    }
+	                }
+	                catch (Exception e)
+	                {
+	                    e.printStackTrace();
+	                }
+	                finally 
+	                {
+	                    //remove the lock (if possible)
+	                    if (getCanvas() != null)
+	                    {
+	                        try
+	                        {
+	                            //render the pixels on the canvas to the screen
+	                        	getHolder().unlockCanvasAndPost(getCanvas());
+	                        }
+	                        catch (Exception e)
+	                        {
+	                            e.printStackTrace();
+	                        }
+	                    }
+	                }
                 }
                 
+                //calculate the number of milliseconds until the next render is due
+                final long waitTime = (targetTime - (System.nanoTime() - startTime)) / Animation.NANO_SECONDS_PER_MILLISECOND;
+                
                 try
                 {
-                    //sleep the thread
-                    sleep(waitTime);
+                    //sleep the thread if we are ahead, otherwise just give other threads a chance
+                	if (waitTime > 0)
+                	{
+                		sleep(waitTime);
+                	}
+                	else
+                	{
+                		Thread.yield();
+                	}
                 }
                 catch (Exception e)
                 {
                     e.printStackTrace();
                 }
-
+                
                 //if we are debugging, print the fps
                 if (DEBUG)
                 {
                     //calculate the total time passed
                     totalTime += System.nanoTime() - startTime;
-
+                    
                     //increase the frame count
                     frames++;
-
+                    
                     //if the frame count = the assigned fps
                     if (frames == FPS)
                     {
                         //calculate the average fps
                         final double fpsAverage = (double)Animation.MILLISECONDS_PER_SECOND / ((double)(totalTime / frames) / Animation.NANO_SECONDS_PER_MILLISECOND);
-
+                        
                         //reset these values
                         frames = 0;
                         totalTime = 0;
-
+                        
                         //display the average
                         System.out.println("Average FPS " + fpsAverage);
                     }
@@ -187,9 +269,73 @@ public class MainThread extends Thread
         {
 	        //stop thread
 	        this.setRunning(false);
+	        
+	        //stop the render thread and wait for it to finish
+	        if (renderThread != null)
+	        {
+	        	renderThread.setRunning(false);
+	        	
+	        	try
+	        	{
+	        		renderThread.join();
+	        	}
+	        	catch (InterruptedException e)
+	        	{
+	        		e.printStackTrace();
+	        	}
+	        }
         }
     }
     
+    /**
+     * Run as many fixed updates as needed to catch up with real time
+     * @param lag The amount of simulation time we need to catch up on (nanoseconds)
+     * @param tickTime The fixed amount of time per each simulation update (nanoseconds)
+     * @return The amount of simulation time still remaining (nanoseconds)
+     */
+    private long update(long lag, final long tickTime)
+    {
+    	//the number of updates performed for this render
+    	updates = 0;
+    	
+    	while (lag >= tickTime && updates < MAX_UPDATES_PER_FRAME)
+    	{
+            //update our game panel
+            getPanel().update();
+            
+            //remove the simulated time
+            lag -= tickTime;
+            updates++;
+    	}
+    	
+    	//if we are still behind, drop the remaining time so we don't spiral
+    	if (lag >= tickTime)
+    	{
+            //if debugging alert that we could not keep up
+            if (DEBUG)
+            	System.out.println("Thread dropped simulation time (ns): " + lag);
+            
+    		lag = 0;
+    	}
+    	
+    	//determine how far we are between the previous and next update
+    	Entity.setInterpolation((float)lag / (float)tickTime);
+    	
+    	return lag;
+    }
+    
+    /**
+     * Record the time of this frame for the profiler and the trace
+     * @param startTime The time the frame started (nanoseconds)
+     */
+    private void recordFrame(final long startTime)
+    {
+    	final long elapsed = System.nanoTime() - startTime;
+    	
+        Profiler.record(Section.Frame, elapsed);
+        getPanel().getTrace().record(elapsed, updates);
+    }
+    
     /**
      * Set the pause flag.<br>
      * If we are pausing the game we will make sure the canvas is not locked
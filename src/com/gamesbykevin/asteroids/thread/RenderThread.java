@@ -0,0 +1,114 @@
+package com.gamesbykevin.asteroids.thread;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.view.SurfaceHolder;
+
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+/**
+ * Draws the newest snapshot recorded by the game thread to the screen.<br>
+ * Waiting on the surface and drawing the pixels happen here, so the game thread can keep updating
+ * @author GOD
+ */
+public class RenderThread extends Thread
+{
+    /**
+     * The most time to wait for a new snapshot before checking if we should stop (milliseconds)
+     */
+    private static final long SNAPSHOT_WAIT = 100L;
+    
+    //our game panel
+    private final GamePanel panel;
+    
+    //area where game play is rendered
+    private final SurfaceHolder holder;
+    
+    //the snapshots recorded by the game thread
+    private final Snapshots snapshots;
+    
+    //is the thread running
+    private volatile boolean running = false;
+    
+    /**
+     * Create the render thread
+     * @param holder Where we draw
+     * @param panel The game panel that draws each snapshot
+     * @param snapshots The snapshots recorded by the game thread
+     */
+    public RenderThread(final SurfaceHolder holder, final GamePanel panel, final Snapshots snapshots)
+    {
+        super();
+        
+        this.holder = holder;
+        this.panel = panel;
+        this.snapshots = snapshots;
+    }
+    
+    @Override
+    public void run()
+    {
+        while (isRunning())
+        {
+            Canvas canvas = null;
+            
+            try
+            {
+                //wait for the next snapshot
+                final Picture picture = snapshots.acquire(SNAPSHOT_WAIT);
+                
+                if (picture == null)
+                    continue;
+                
+                //attempt to lock the canvas to edit the pixels of the surface
+                canvas = holder.lockCanvas();
+                
+                if (canvas != null)
+                {
+                    //make sure no other threads are accessing the holder
+                    synchronized (holder)
+                    {
+                        panel.present(canvas, picture);
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+            finally
+            {
+                //render the pixels on the canvas to the screen
+                if (canvas != null)
+                {
+                    try
+                    {
+                        holder.unlockCanvasAndPost(canvas);
+                    }
+                    catch (Exception e)
+                    {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Assign the thread to run.
+     * @param running true the thread will continue to loop, false the thread will finish
+     */
+    public void setRunning(final boolean running)
+    {
+        this.running = running;
+    }
+    
+    /**
+     * Is the thread set to run?
+     * @return true = yes, false = no
+     */
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+}
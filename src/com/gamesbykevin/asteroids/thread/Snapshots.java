@@ -0,0 +1,86 @@
+package com.gamesbykevin.asteroids.thread;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+
+import com.gamesbykevin.asteroids.panel.GamePanel;
+
+/**
+ * Three recordings of the rendered game passed from the game thread to the render thread.<br>
+ * The game thread records into one while the render thread draws another, and the third holds the newest complete recording.
+ * Neither thread ever waits for the other to finish drawing
+ * @author GOD
+ */
+public final class Snapshots
+{
+    //the recordings
+    private final Picture[] pictures;
+    
+    //the recording being written, the newest complete recording, and the recording being drawn
+    private int write = 0, ready = 1, read = 2;
+    
+    //is the ready recording newer than the one being drawn
+    private boolean fresh = false;
+    
+    public Snapshots()
+    {
+        this.pictures = new Picture[] {new Picture(), new Picture(), new Picture()};
+    }
+    
+    /**
+     * Start recording the next snapshot.<br>
+     * Only call this from the game thread
+     * @return The canvas to render the game to, the coordinates are the default dimensions
+     */
+    public Canvas begin()
+    {
+        return pictures[write].beginRecording(GamePanel.WIDTH, GamePanel.HEIGHT);
+    }
+    
+    /**
+     * Finish recording and make the snapshot the newest.<br>
+     * Only call this from the game thread
+     */
+    public void publish()
+    {
+        pictures[write].endRecording();
+        
+        synchronized (this)
+        {
+            //the recording we just wrote is now the newest, and we will write over the previous newest
+            final int tmp = ready;
+            ready = write;
+            write = tmp;
+            
+            fresh = true;
+            
+            //wake the render thread
+            notifyAll();
+        }
+    }
+    
+    /**
+     * Get the newest snapshot.<br>
+     * Only call this from the render thread
+     * @param timeout The most time to wait for a new snapshot (milliseconds)
+     * @return The newest snapshot, or null if there wasn't a new one in time
+     * @throws InterruptedException
+     */
+    public synchronized Picture acquire(final long timeout) throws InterruptedException
+    {
+        if (!fresh)
+            wait(timeout);
+        
+        if (!fresh)
+            return null;
+        
+        //draw the newest recording, the one we were drawing can be written over
+        final int tmp = read;
+        read = ready;
+        ready = tmp;
+        
+        fresh = false;
+        
+        return pictures[read];
+    }
+}